@@ -0,0 +1,110 @@
+package com.easy1staking.plutusscan;
+
+import com.easy1staking.plutusscan.dto.ParameterSchema;
+import com.easy1staking.plutusscan.dto.ParsedValidator;
+import com.easy1staking.plutusscan.service.plutusjson.AikenV1_1_Parser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming plutus.json parser vs. the previous readTree based parser
+ *
+ * Run with: ./gradlew jmh (add profilers = ['gc'] to the jmh block for allocation rates)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlutusJsonParserBenchmark {
+
+    @Param({"10", "40"})
+    private int validatorCount;
+
+    @Param({"2000"})
+    private int definitionCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AikenV1_1_Parser streamingParser = new AikenV1_1_Parser();
+
+    private String plutusJson;
+    private byte[] plutusJsonBytes;
+
+    @Setup
+    public void setup() {
+        plutusJson = blueprint(validatorCount, definitionCount);
+        plutusJsonBytes = plutusJson.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<ParsedValidator> streamingFromString() {
+        return streamingParser.parse(plutusJson);
+    }
+
+    @Benchmark
+    public List<ParsedValidator> streamingFromStream() {
+        return streamingParser.parse(new ByteArrayInputStream(plutusJsonBytes));
+    }
+
+    @Benchmark
+    public List<ParsedValidator> legacyTree() throws Exception {
+        // The field extraction of the former AikenV1_1_Parser, without the grouping
+        JsonNode root = objectMapper.readTree(plutusJson);
+        root.path("preamble").path("plutusVersion").asText("V3");
+
+        List<ParsedValidator> result = new ArrayList<>();
+        for (JsonNode validator : root.path("validators")) {
+            List<ParameterSchema> parameters = new ArrayList<>();
+            for (JsonNode param : validator.path("parameters")) {
+                parameters.add(ParameterSchema.builder()
+                    .title(param.path("title").asText(null))
+                    .schema(objectMapper.convertValue(param.path("schema"), Object.class))
+                    .build());
+            }
+            result.add(ParsedValidator.builder()
+                .scriptName(validator.path("title").asText())
+                .rawHash(validator.path("hash").asText())
+                .compiledCode(validator.path("compiledCode").asText())
+                .requiredParameters(parameters)
+                .build());
+        }
+        return result;
+    }
+
+    /**
+     * Synthetic blueprint: validators with ~64 KB of compiled code each and a large definitions section
+     */
+    static String blueprint(int validators, int definitions) {
+        String compiledCode = "59".repeat(32 * 1024);
+        StringBuilder json = new StringBuilder(validators * 70_000 + definitions * 200);
+        json.append("{\"preamble\":{\"title\":\"bench/bench\",\"plutusVersion\":\"v3\",")
+            .append("\"compiler\":{\"name\":\"Aiken\",\"version\":\"v1.1.3\"}},\"validators\":[");
+        for (int i = 0; i < validators; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"title\":\"module").append(i).append(".validator").append(i).append(".spend\",")
+                .append("\"datum\":{\"title\":\"datum\",\"schema\":{\"$ref\":\"#/definitions/Type0\"}},")
+                .append("\"redeemer\":{\"title\":\"redeemer\",\"schema\":{\"$ref\":\"#/definitions/Type1\"}},")
+                .append("\"parameters\":[{\"title\":\"owner\",\"schema\":{\"$ref\":\"#/definitions/ByteArray\"}}],")
+                .append("\"compiledCode\":\"").append(compiledCode).append("\",")
+                .append("\"hash\":\"").append(String.format("%056x", i)).append("\"}");
+        }
+        json.append("],\"definitions\":{\"ByteArray\":{\"dataType\":\"bytes\"}");
+        for (int i = 0; i < definitions; i++) {
+            json.append(",\"Type").append(i).append("\":{\"title\":\"Type").append(i)
+                .append("\",\"anyOf\":[{\"title\":\"Constructor\",\"dataType\":\"constructor\",\"index\":0,")
+                .append("\"fields\":[{\"title\":\"field\",\"$ref\":\"#/definitions/ByteArray\"}]}]}");
+        }
+        json.append("}}");
+        return json.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.easy1staking.plutusscan;
+
+import com.bloxbean.cardano.client.address.AddressProvider;
+import com.bloxbean.cardano.client.address.Credential;
+import com.bloxbean.cardano.client.common.model.Networks;
+import com.bloxbean.cardano.client.util.HexUtil;
+import com.easy1staking.plutusscan.service.AddressService;
+import com.easy1staking.plutusscan.service.ScriptHashResolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScriptHashResolver vs. the Address based AddressService.normalizeToScriptHash
+ *
+ * Each invocation resolves the next of 1024 distinct inputs of the given kind; they all fit in the
+ * resolver cache. Run with: ./gradlew jmh (add profilers = ['gc'] to the jmh block for allocation rates)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScriptHashResolverBenchmark {
+
+    private static final int INPUT_COUNT = 1024;
+
+    /**
+     * hash: hex script hash, script: base address with a script payment credential, key: base
+     * address without script credential, garbage: malformed input
+     */
+    @Param({"hash", "script", "key", "garbage"})
+    private String inputKind;
+
+    private final AddressService addressService = new AddressService();
+    private final ScriptHashResolver uncachedResolver = new ScriptHashResolver(0);
+    private final ScriptHashResolver cachedResolver = new ScriptHashResolver(INPUT_COUNT * 2);
+
+    private String[] inputs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        inputs = new String[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            byte[] payment = new byte[28];
+            byte[] stake = new byte[28];
+            random.nextBytes(payment);
+            random.nextBytes(stake);
+            inputs[i] = switch (inputKind) {
+                case "hash" -> HexUtil.encodeHexString(payment);
+                case "script" -> AddressProvider.getBaseAddress(Credential.fromScript(payment),
+                    Credential.fromKey(stake), Networks.mainnet()).toBech32();
+                case "key" -> AddressProvider.getBaseAddress(Credential.fromKey(payment),
+                    Credential.fromKey(stake), Networks.mainnet()).toBech32();
+                default -> "addr1" + HexUtil.encodeHexString(payment) + "-not-bech32";
+            };
+        }
+    }
+
+    @Benchmark
+    public Optional<String> addressService() {
+        return addressService.normalizeToScriptHash(nextInput());
+    }
+
+    @Benchmark
+    public Optional<String> resolverUncached() {
+        return uncachedResolver.resolve(nextInput());
+    }
+
+    @Benchmark
+    public Optional<String> resolverCached() {
+        return cachedResolver.resolve(nextInput());
+    }
+
+    private String nextInput() {
+        next = (next + 1) & (INPUT_COUNT - 1);
+        return inputs[next];
+    }
+}
@@ -1,7 +1,10 @@
 package com.easy1staking.plutusscan.controller;
 
+import com.easy1staking.plutusscan.dto.ScriptSearchPage;
+import com.easy1staking.plutusscan.dto.ScriptSummary;
+import com.easy1staking.plutusscan.dto.request.ScriptLookupRequestDto;
 import com.easy1staking.plutusscan.dto.response.ScriptListResponseDto;
-import com.easy1staking.plutusscan.service.AddressService;
+import com.easy1staking.plutusscan.service.ScriptHashResolver;
 import com.easy1staking.plutusscan.service.ScriptService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,10 +15,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * REST controller for querying scripts
@@ -27,8 +43,13 @@ import java.util.List;
 @Tag(name = "Scripts", description = "Query and search verified Cardano smart contracts")
 public class ScriptController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ScriptService scriptService;
-    private final AddressService addressService;
+    private final ScriptHashResolver scriptHashResolver;
+
+    @Value("${lookup.max-batch-size:200}")
+    private int maxBatchSize;
 
     /**
      * Get scripts by source URL and commit hash
@@ -62,7 +83,7 @@ public class ScriptController {
             return ResponseEntity.notFound().build();
         }
 
-        var response = ScriptListResponseDto.fromEntities(scripts);
+        var response = ScriptListResponseDto.fromSummaries(scripts);
         return ResponseEntity.ok(response);
     }
 
@@ -95,10 +116,66 @@ public class ScriptController {
             return ResponseEntity.notFound().build();
         }
 
-        var response = ScriptListResponseDto.fromEntities(scripts);
+        var response = ScriptListResponseDto.fromSummaries(scripts);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get the compiled code of a script
+     * Served as CBOR hex (text/plain) by default, or as raw bytes when application/cbor is accepted.
+     * Code is content-addressed, so responses carry a strong ETag, are cacheable forever and
+     * support Range requests.
+     * Example: GET /api/v1/scripts/by-hash/abc123.../code
+     */
+    @Operation(
+        summary = "Get compiled code by script hash",
+        description = "Retrieve the compiled (unparameterized) code of a script by its raw hash, " +
+                     "as CBOR hex or, with 'Accept: application/cbor', as raw CBOR bytes."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Compiled code", content = {
+            @Content(mediaType = MediaType.TEXT_PLAIN_VALUE),
+            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE)}),
+        @ApiResponse(responseCode = "206", description = "Requested byte range of the compiled code", content = @Content),
+        @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match)", content = @Content),
+        @ApiResponse(responseCode = "404", description = "No code stored for this hash", content = @Content)
+    })
+    @GetMapping("/by-hash/{scriptHash}/code")
+    public ResponseEntity<Resource> getScriptCode(
+            @Parameter(description = "Raw script hash (56-character hex string)", required = true, example = "a3b2c1...")
+            @PathVariable String scriptHash,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        log.info("Query script code by hash: {}", scriptHash);
+
+        // One lookup key and one ETag per script, whatever the case of the requested hash
+        var hash = scriptService.normalizeScriptHash(scriptHash);
+        if (hash.isEmpty()) {
+            log.info("Invalid script hash: {}", scriptHash);
+            return ResponseEntity.notFound().build();
+        }
+
+        var code = scriptService.findCode(hash.get());
+
+        if (code.isEmpty()) {
+            log.info("No code found for hash: {}", scriptHash);
+            return ResponseEntity.notFound().build();
+        }
+
+        boolean binary = acceptsCbor(accept);
+        byte[] body = binary
+            ? code.get().getCompiledCodeBytes()
+            : code.get().getCompiledCode().getBytes(StandardCharsets.US_ASCII);
+
+        // The body only depends on the hash and the representation
+        return ResponseEntity.ok()
+            .contentType(binary ? MediaType.APPLICATION_CBOR : MediaType.TEXT_PLAIN)
+            .eTag(hash.get() + (binary ? "-cbor" : "-hex"))
+            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(new ByteArrayResource(body));
+    }
+
     /**
      * Get scripts by Cardano address
      * Supports: base addresses, enterprise addresses, stake addresses, direct script hash
@@ -125,7 +202,7 @@ public class ScriptController {
         log.info("Query scripts by address: {}", address);
 
         // Extract script hash from address (or validate if already a hash)
-        var scriptHashOpt = addressService.normalizeToScriptHash(address);
+        var scriptHashOpt = scriptHashResolver.resolve(address);
 
         if (scriptHashOpt.isEmpty()) {
             log.warn("Address does not contain a script hash or is invalid: {}", address);
@@ -142,32 +219,90 @@ public class ScriptController {
             return ResponseEntity.notFound().build();
         }
 
-        var response = ScriptListResponseDto.fromEntities(scripts);
+        var response = ScriptListResponseDto.fromSummaries(scripts);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Look up scripts for many hashes and addresses in one request
+     * Example: POST /api/v1/scripts/lookup {"inputs": ["addr1w8...", "stake17...", "a3b2c1..."]}
+     */
+    @Operation(
+        summary = "Look up scripts by many hashes or addresses",
+        description = "Resolve a mixed list of script hashes and addresses (payment or stake) in one request. " +
+                     "Returns a map keyed by input: the scripts found, as for the by-hash endpoint, or null " +
+                     "if the input is not a script hash or script address, or no scripts were found."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lookup results by input"),
+        @ApiResponse(responseCode = "400", description = "Missing inputs or too many inputs", content = @Content)
+    })
+    @PostMapping("/lookup")
+    public ResponseEntity<Map<String, ScriptListResponseDto>> lookupScripts(@RequestBody ScriptLookupRequestDto request) {
+
+        if (request.getInputs() == null) {
+            throw new IllegalArgumentException("inputs is required");
+        }
+        List<String> inputs = request.getInputs().stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        if (inputs.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " inputs per lookup");
+        }
+
+        log.info("Bulk lookup of {} inputs", inputs.size());
+
+        // Bech32 decoding dominates for large batches
+        Map<String, String> hashByInput = inputs.parallelStream()
+            .map(input -> Map.entry(input, scriptHashResolver.resolve(input)))
+            .filter(entry -> entry.getValue().isPresent())
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
+
+        var scriptsByHash = scriptService.findByHashes(hashByInput.values());
+
+        Map<String, ScriptListResponseDto> response = new LinkedHashMap<>();
+        for (String input : inputs) {
+            var scripts = hashByInput.containsKey(input)
+                ? scriptsByHash.getOrDefault(hashByInput.get(input), List.of())
+                : List.<ScriptSummary>of();
+            response.put(input, scripts.isEmpty() ? null : ScriptListResponseDto.fromSummaries(scripts));
+        }
+
+        log.info("Bulk lookup resolved {} of {} inputs",
+            response.values().stream().filter(Objects::nonNull).count(), inputs.size());
         return ResponseEntity.ok(response);
     }
 
     /**
      * Search scripts by partial source URL pattern (case-insensitive)
+     * Results are paginated: the cursor of the next page, if any, is returned in the X-Next-Cursor header
      * Example: GET /api/v1/scripts/search?urlPattern=sundae-labs
-     * Example: GET /api/v1/scripts/search?urlPattern=easy1staking
-     * Example: GET /api/v1/scripts/search?urlPattern=aiken-lang
+     * Example: GET /api/v1/scripts/search?urlPattern=easy1staking&limit=50
+     * Example: GET /api/v1/scripts/search?urlPattern=aiken-lang&cursor=MDo0Mg
      */
     @Operation(
         summary = "Search scripts by URL pattern",
-        description = "Search for verified scripts using a partial URL pattern (case-insensitive). " +
-                     "Returns all verification requests whose source URL contains the search pattern. " +
+        description = "Search for verified scripts using a partial URL pattern (case-insensitive, at least 3 characters). " +
+                     "Returns the verification requests whose source URL contains the search pattern, " +
+                     "organization and repository name matches first, then most recent first. " +
+                     "Results are paginated: pass the X-Next-Cursor response header as cursor to get the next page. " +
                      "Useful for finding all contracts from an organization or project."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Search results (may be empty)",
             content = @Content(schema = @Schema(implementation = List.class))),
-        @ApiResponse(responseCode = "400", description = "Invalid search pattern", content = @Content)
+        @ApiResponse(responseCode = "400", description = "Invalid search pattern or cursor", content = @Content)
     })
     @GetMapping("/search")
     public ResponseEntity<List<ScriptListResponseDto>> searchScripts(
             @Parameter(description = "Partial URL pattern to search (e.g., 'sundae-labs', 'easy1staking')",
                       required = true, example = "aiken-lang")
-            @RequestParam("urlPattern") String urlPattern) {
+            @RequestParam("urlPattern") String urlPattern,
+            @Parameter(description = "Cursor of the page to get, from the X-Next-Cursor header of the previous page")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Maximum number of verification requests to return")
+            @RequestParam(value = "limit", required = false) Integer limit) {
 
         log.info("Search request for URL pattern: {}", urlPattern);
 
@@ -176,14 +311,31 @@ public class ScriptController {
             return ResponseEntity.badRequest().build();
         }
 
-        List<ScriptListResponseDto> results = scriptService.searchByUrlPattern(urlPattern);
+        ScriptSearchPage page = scriptService.searchByUrlPattern(urlPattern, cursor, limit);
 
-        if (results.isEmpty()) {
+        if (page.results().isEmpty()) {
             log.info("No scripts found matching pattern: {}", urlPattern);
             return ResponseEntity.ok(List.of());  // Return empty list instead of 404
         }
 
-        log.info("Found {} verification requests matching pattern '{}'", results.size(), urlPattern);
-        return ResponseEntity.ok(results);
+        log.info("Found {} verification requests matching pattern '{}'", page.results().size(), urlPattern);
+
+        var response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.results());
+    }
+
+    private boolean acceptsCbor(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
     }
 }
@@ -16,7 +16,7 @@ import java.util.Map;
 @Table(name = "plutus_json_cache",
        uniqueConstraints = @UniqueConstraint(
            name = "uk_plutus_json_cache_key",
-           columnNames = {"compiler_type", "source_url", "commit_hash", "compiler_version"}))
+           columnNames = {"compiler_type", "source_url", "commit_hash", "compiler_version", "source_path"}))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -42,11 +42,32 @@ public class PlutusJsonCacheEntity {
     @Column(name = "compiler_version", nullable = false)
     private String compilerVersion;
 
-    // Cached content stored as JSONB for efficient querying
+    // Project directory within the repository, '' for the root
+    @Column(name = "source_path", nullable = false, length = 1000)
+    @Builder.Default
+    private String sourcePath = "";
+
+    // Content-addressed key of the compiler input (null if unknown)
+    @Column(name = "input_hash", length = 64)
+    private String inputHash;
+
+    // Legacy cached content stored as JSONB (null for entries written with plutusJson)
     @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "plutus_json_content", nullable = false, columnDefinition = "jsonb")
+    @Column(name = "plutus_json_content", columnDefinition = "jsonb")
     private Map<String, Object> plutusJsonContent;
 
+    // Original plutus.json bytes, deflate compressed
+    @Column(name = "plutus_json")
+    private byte[] plutusJson;
+
+    // Parsed validators (ParsedValidatorCodec encoding)
+    @Column(name = "validators")
+    private byte[] validators;
+
+    // Version of the parser that produced validators
+    @Column(name = "parser_version", length = 50)
+    private String parserVersion;
+
     // Metadata
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
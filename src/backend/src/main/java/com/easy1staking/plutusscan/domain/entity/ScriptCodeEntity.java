@@ -0,0 +1,62 @@
+package com.easy1staking.plutusscan.domain.entity;
+
+import com.bloxbean.cardano.client.util.HexUtil;
+import com.easy1staking.plutusscan.domain.enums.CodeCompression;
+import com.easy1staking.plutusscan.util.Compression;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity storing the compiled code of a script once per script hash
+ * Referenced by every ScriptEntity with the same raw hash
+ */
+@Entity
+@Table(name = "script_code")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScriptCodeEntity {
+
+    // Unparameterized script hash
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "compression", nullable = false, length = 10)
+    private CodeCompression compression;
+
+    // Compiled code bytes, encoded as given by compression
+    @Column(name = "code", nullable = false)
+    private byte[] code;
+
+    // Uncompressed size in bytes
+    @Column(name = "code_size", nullable = false)
+    private int codeSize;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Compiled code bytes, decompressed
+     */
+    public byte[] getCompiledCodeBytes() {
+        return compression == CodeCompression.DEFLATE ? Compression.inflate(code) : code;
+    }
+
+    /**
+     * Compiled code as CBOR hex, as found in plutus.json
+     */
+    public String getCompiledCode() {
+        return HexUtil.encodeHexString(getCompiledCodeBytes());
+    }
+}
@@ -56,8 +56,10 @@ public class ScriptEntity {
     @Column(name = "plutus_version", nullable = false)
     private PlutusVersion plutusVersion;
 
-    @Column(name = "compiled_code", nullable = false, columnDefinition = "TEXT")
-    private String compiledCode;
+    // Compiled code, shared by all scripts with the same raw hash and only loaded when accessed
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "raw_hash", referencedColumnName = "hash", insertable = false, updatable = false)
+    private ScriptCodeEntity code;
 
     // Parameters - stored as JSON
     @JdbcTypeCode(SqlTypes.JSON)
@@ -81,4 +83,11 @@ public class ScriptEntity {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
+
+    /**
+     * Compiled code as CBOR hex, loaded and decompressed on call
+     */
+    public String getCompiledCode() {
+        return code != null ? code.getCompiledCode() : null;
+    }
 }
@@ -0,0 +1,57 @@
+package com.easy1staking.plutusscan.domain.entity;
+
+import com.easy1staking.plutusscan.domain.enums.ScriptHashKind;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Entry of the script hash lookup index: one per distinct raw or final hash of a script
+ * Written with ScriptHashIndexRepository.insert, read through queries joining the script
+ */
+@Entity
+@Table(name = "script_hash_index")
+@IdClass(ScriptHashIndexEntity.Key.class)
+@Immutable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScriptHashIndexEntity {
+
+    // Script hash (28 bytes)
+    @Id
+    @Column(name = "hash", nullable = false)
+    private byte[] hash;
+
+    @Id
+    @Column(name = "script_id", nullable = false)
+    private Long scriptId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 5)
+    private ScriptHashKind kind;
+
+    /**
+     * Composite primary key
+     */
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private byte[] hash;
+        private Long scriptId;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Arrays.equals(hash, key.hash) && Objects.equals(scriptId, key.scriptId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(hash) + Objects.hashCode(scriptId);
+        }
+    }
+}
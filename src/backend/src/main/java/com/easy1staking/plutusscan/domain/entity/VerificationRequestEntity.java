@@ -1,5 +1,6 @@
 package com.easy1staking.plutusscan.domain.entity;
 
+import com.easy1staking.plutusscan.domain.enums.VerificationPhase;
 import com.easy1staking.plutusscan.domain.enums.VerificationStatus;
 import com.easy1staking.plutusscan.model.CompilerType;
 import jakarta.persistence.*;
@@ -7,6 +8,7 @@ import lombok.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -73,6 +75,18 @@ public class VerificationRequestEntity {
     @Builder.Default
     private Integer retryCount = 0;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase")
+    private VerificationPhase phase;
+
+    // Work claiming lease (set while PROCESSING)
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    // Absolute instant (TIMESTAMPTZ), set and compared on the database clock
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
     // Relationship to scripts
     @OneToMany(mappedBy = "verificationRequest", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
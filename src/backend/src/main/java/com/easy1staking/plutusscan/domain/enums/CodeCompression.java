@@ -0,0 +1,16 @@
+package com.easy1staking.plutusscan.domain.enums;
+
+/**
+ * Encoding of stored compiled code bytes
+ */
+public enum CodeCompression {
+    /**
+     * Stored as is
+     */
+    NONE,
+
+    /**
+     * Deflate (zlib) compressed
+     */
+    DEFLATE
+}
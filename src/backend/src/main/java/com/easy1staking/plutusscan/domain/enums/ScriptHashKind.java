@@ -0,0 +1,21 @@
+package com.easy1staking.plutusscan.domain.enums;
+
+/**
+ * Which hash of a script an indexed hash is
+ */
+public enum ScriptHashKind {
+    /**
+     * Unparameterized hash
+     */
+    RAW,
+
+    /**
+     * Parameterized hash
+     */
+    FINAL,
+
+    /**
+     * Both, the script takes no parameters
+     */
+    BOTH
+}
@@ -0,0 +1,23 @@
+package com.easy1staking.plutusscan.domain.enums;
+
+/**
+ * Last completed step of a verification request being processed
+ * Each transition is persisted in its own short transaction, so a crashed or expired attempt
+ * resumes from the last completed phase
+ */
+public enum VerificationPhase {
+    /**
+     * Claimed by a node, nothing done yet
+     */
+    CLAIMED,
+
+    /**
+     * plutus.json compiled (or found), parsed into validators and stored in the build cache
+     */
+    COMPILED,
+
+    /**
+     * Scripts stored and request marked as VERIFIED
+     */
+    PERSISTED
+}
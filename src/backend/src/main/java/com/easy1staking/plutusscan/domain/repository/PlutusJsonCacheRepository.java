@@ -3,7 +3,11 @@ package com.easy1staking.plutusscan.domain.repository;
 import com.easy1staking.plutusscan.domain.entity.PlutusJsonCacheEntity;
 import com.easy1staking.plutusscan.model.CompilerType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -20,13 +24,54 @@ public interface PlutusJsonCacheRepository extends JpaRepository<PlutusJsonCache
      * @param sourceUrl VCS source URL (supports any Git hosting platform)
      * @param commitHash Git commit hash (SHA-1 or SHA-256)
      * @param compilerVersion Compiler version
+     * @param sourcePath Project directory within the repository, '' for the root
      * @return Optional cache entity
      */
-    Optional<PlutusJsonCacheEntity> findByCompilerTypeAndSourceUrlAndCommitHashAndCompilerVersion(
+    Optional<PlutusJsonCacheEntity> findByCompilerTypeAndSourceUrlAndCommitHashAndCompilerVersionAndSourcePath(
         CompilerType compilerType,
         String sourceUrl,
         String commitHash,
-        String compilerVersion);
+        String compilerVersion,
+        String sourcePath);
+
+    /**
+     * Find the most recent cached plutus.json built from the same compiler input
+     * @param inputHash Content-addressed key of the compiler input
+     * @return Optional cache entity
+     */
+    Optional<PlutusJsonCacheEntity> findFirstByInputHashOrderByCreatedAtDesc(String inputHash);
+
+    /**
+     * Insert a cache entry, or replace the content of the existing entry for the same key
+     * Atomic, so concurrent writers of the same key cannot fail on the unique constraint
+     * @param sourcePath Project directory within the repository, '' for the root
+     * @param plutusJson Deflate compressed plutus.json
+     * @param validators Encoded parsed validators
+     * @param parserVersion Version of the parser that produced validators
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO plutus_json_cache (compiler_type, source_url, commit_hash, compiler_version, source_path,
+                                       input_hash, plutus_json, validators, parser_version, created_at)
+        VALUES (:compilerType, :sourceUrl, :commitHash, :compilerVersion, :sourcePath,
+                :inputHash, :plutusJson, :validators, :parserVersion, CURRENT_TIMESTAMP)
+        ON CONFLICT ON CONSTRAINT uk_plutus_json_cache_key
+        DO UPDATE SET plutus_json = EXCLUDED.plutus_json,
+                      validators = EXCLUDED.validators,
+                      parser_version = EXCLUDED.parser_version,
+                      plutus_json_content = NULL,
+                      input_hash = COALESCE(EXCLUDED.input_hash, plutus_json_cache.input_hash)
+        """, nativeQuery = true)
+    int upsert(@Param("compilerType") String compilerType,
+               @Param("sourceUrl") String sourceUrl,
+               @Param("commitHash") String commitHash,
+               @Param("compilerVersion") String compilerVersion,
+               @Param("sourcePath") String sourcePath,
+               @Param("inputHash") String inputHash,
+               @Param("plutusJson") byte[] plutusJson,
+               @Param("validators") byte[] validators,
+               @Param("parserVersion") String parserVersion);
 
     /**
      * Delete cache entries older than the specified cutoff date
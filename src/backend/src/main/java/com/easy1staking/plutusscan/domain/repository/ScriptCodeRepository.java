@@ -0,0 +1,37 @@
+package com.easy1staking.plutusscan.domain.repository;
+
+import com.easy1staking.plutusscan.domain.entity.ScriptCodeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for ScriptCodeEntity
+ */
+@Repository
+public interface ScriptCodeRepository extends JpaRepository<ScriptCodeEntity, String> {
+
+    /**
+     * Store compiled code unless code for the same hash is already stored
+     * Atomic, so concurrent verifications of the same script cannot fail on the primary key
+     * @param hash Unparameterized script hash
+     * @param compression Encoding of code (CodeCompression name)
+     * @param code Compiled code bytes
+     * @param codeSize Uncompressed size in bytes
+     * @return 1 if stored, 0 if already present
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO script_code (hash, compression, code, code_size, created_at)
+        VALUES (:hash, :compression, :code, :codeSize, CURRENT_TIMESTAMP)
+        ON CONFLICT (hash) DO NOTHING
+        """, nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash,
+                       @Param("compression") String compression,
+                       @Param("code") byte[] code,
+                       @Param("codeSize") int codeSize);
+}
@@ -0,0 +1,50 @@
+package com.easy1staking.plutusscan.domain.repository;
+
+import com.easy1staking.plutusscan.domain.entity.ScriptHashIndexEntity;
+import com.easy1staking.plutusscan.dto.IndexedHash;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Repository for ScriptHashIndexEntity
+ * Lookups join the index in ScriptRepository queries
+ */
+@Repository
+public interface ScriptHashIndexRepository extends JpaRepository<ScriptHashIndexEntity, ScriptHashIndexEntity.Key> {
+
+    /**
+     * Index a script hash
+     * @param hash Script hash bytes
+     * @param scriptId Script ID
+     * @param kind ScriptHashKind name
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO script_hash_index (hash, script_id, kind)
+        VALUES (:hash, :scriptId, :kind)
+        ON CONFLICT DO NOTHING
+        """, nativeQuery = true)
+    int insert(@Param("hash") byte[] hash,
+               @Param("scriptId") Long scriptId,
+               @Param("kind") String kind);
+
+    /**
+     * Stream indexed hashes of scripts after the given one, fetched in batches
+     * Must be consumed, and closed, inside a transaction
+     * @param afterScriptId Script ID to start after, 0 for all
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT new com.easy1staking.plutusscan.dto.IndexedHash(h.hash, h.scriptId) " +
+           "FROM ScriptHashIndexEntity h WHERE h.scriptId > :afterScriptId")
+    Stream<IndexedHash> streamAfterScriptId(@Param("afterScriptId") long afterScriptId);
+}
@@ -1,11 +1,13 @@
 package com.easy1staking.plutusscan.domain.repository;
 
 import com.easy1staking.plutusscan.domain.entity.ScriptEntity;
+import com.easy1staking.plutusscan.dto.ScriptSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,38 +17,58 @@ import java.util.List;
 public interface ScriptRepository extends JpaRepository<ScriptEntity, Long> {
 
     /**
-     * Find scripts by raw hash (unparameterized)
+     * Find scripts by verification request ID
      */
-    List<ScriptEntity> findByRawHash(String rawHash);
+    List<ScriptEntity> findByVerificationRequestId(Long verificationRequestId);
 
     /**
-     * Find scripts by final hash (parameterized)
+     * Script summaries by either raw or final hash, a single probe of the script hash index
+     * @param hash Script hash bytes
+     * @return Matching scripts with their verification request, most recent request first
      */
-    List<ScriptEntity> findByFinalHash(String finalHash);
+    @Query(ScriptSummary.SELECT +
+           "FROM ScriptHashIndexEntity h " +
+           "JOIN ScriptEntity s ON s.id = h.scriptId " +
+           "JOIN s.verificationRequest vr " +
+           "WHERE h.hash = :hash " +
+           "ORDER BY vr.createdAt DESC, vr.id DESC, s.id")
+    List<ScriptSummary> findSummariesByAnyHash(@Param("hash") byte[] hash);
 
     /**
-     * Find scripts by either raw or final hash
-     * @param hash Script hash to search for
-     * @return List of matching scripts
+     * Script summaries by any of the given raw or final hashes, in a single statement
+     * Each script is returned once, even if both its hashes are given
+     * @param hashes Script hash bytes
+     * @return Matching scripts with their verification request, most recent request first
      */
-    @Query("SELECT s FROM ScriptEntity s WHERE s.rawHash = :hash OR s.finalHash = :hash")
-    List<ScriptEntity> findByAnyHash(@Param("hash") String hash);
+    @Query(ScriptSummary.SELECT +
+           "FROM ScriptEntity s JOIN s.verificationRequest vr " +
+           "WHERE s.id IN (SELECT h.scriptId FROM ScriptHashIndexEntity h WHERE h.hash IN :hashes) " +
+           "ORDER BY vr.createdAt DESC, vr.id DESC, s.id")
+    List<ScriptSummary> findSummariesByAnyHashIn(@Param("hashes") Collection<byte[]> hashes);
 
     /**
-     * Find scripts by verification request ID
+     * Script summaries by source URL and commit hash, most recent request first
+     * (a commit may be verified more than once, e.g. with another source path or compiler version)
      */
-    List<ScriptEntity> findByVerificationRequestId(Long verificationRequestId);
+    @Query(ScriptSummary.SELECT +
+           "FROM ScriptEntity s JOIN s.verificationRequest vr " +
+           "WHERE vr.sourceUrl = :sourceUrl AND vr.commitHash = :commitHash " +
+           "ORDER BY vr.createdAt DESC, vr.id DESC, s.id")
+    List<ScriptSummary> findSummariesBySourceUrlAndCommit(
+        @Param("sourceUrl") String sourceUrl,
+        @Param("commitHash") String commitHash);
 
     /**
-     * Find scripts by source URL and commit hash
-     * Uses join fetch to eagerly load verification request
+     * Script summaries of the given verification requests
+     * Requests without scripts are returned as a single row without script fields
+     * @param verificationRequestIds Request IDs
+     * @return Rows grouped by request
      */
-    @Query("SELECT s FROM ScriptEntity s " +
-           "JOIN FETCH s.verificationRequest vr " +
-           "WHERE vr.sourceUrl = :sourceUrl AND vr.commitHash = :commitHash")
-    List<ScriptEntity> findBySourceUrlAndCommit(
-        @Param("sourceUrl") String sourceUrl,
-        @Param("commitHash") String commitHash);
+    @Query(ScriptSummary.SELECT +
+           "FROM VerificationRequestEntity vr LEFT JOIN vr.scripts s " +
+           "WHERE vr.id IN :ids " +
+           "ORDER BY vr.id DESC, s.id")
+    List<ScriptSummary> findSummariesByRequestIds(@Param("ids") Collection<Long> verificationRequestIds);
 
     /**
      * Count distinct script hashes (using finalHash for parameterized scripts)
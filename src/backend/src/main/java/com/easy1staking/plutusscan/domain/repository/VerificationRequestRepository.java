@@ -1,12 +1,20 @@
 package com.easy1staking.plutusscan.domain.repository;
 
 import com.easy1staking.plutusscan.domain.entity.VerificationRequestEntity;
+import com.easy1staking.plutusscan.domain.enums.VerificationPhase;
 import com.easy1staking.plutusscan.domain.enums.VerificationStatus;
+import com.easy1staking.plutusscan.dto.SearchHit;
+import com.easy1staking.plutusscan.model.CompilerType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,23 +25,154 @@ import java.util.Optional;
 public interface VerificationRequestRepository extends JpaRepository<VerificationRequestEntity, Long> {
 
     /**
-     * Find verification request by composite key (sourceUrl, commitHash)
+     * Find verification request by composite key (sourceUrl, commitHash), with its scripts
      */
+    @EntityGraph(attributePaths = "scripts")
     Optional<VerificationRequestEntity> findBySourceUrlAndCommitHash(
         String sourceUrl, String commitHash);
 
     /**
-     * Find pending verification requests for processing
-     * @param status Verification status to filter by
+     * Lock the oldest pending requests, skipping rows already locked by other nodes
+     * Must be called inside a transaction; the locks are held until it commits
      * @param maxRetries Maximum retry count
-     * @return List of verification requests ordered by creation time
+     * @param limit Maximum number of requests to lock
+     * @return IDs of the locked requests
      */
-    List<VerificationRequestEntity> findByStatusAndRetryCountLessThanOrderByCreatedAtAsc(
-        VerificationStatus status, Integer maxRetries);
+    @Query(value = """
+        SELECT id FROM verification_request
+        WHERE status = 'PENDING' AND retry_count < :maxRetries
+        ORDER BY created_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<Long> lockPendingIds(@Param("maxRetries") int maxRetries, @Param("limit") int limit);
 
     /**
-     * Find verification requests by transaction hash (for audit)
+     * Mark locked requests as PROCESSING under a lease
+     * Requests claimed for the first time enter the CLAIMED phase, others keep their last phase
+     * The lease expiry is computed from the database clock, so clock skew between nodes cannot shorten it
      */
+    @Modifying
+    @Query(value = """
+        UPDATE verification_request
+        SET status = 'PROCESSING', phase = COALESCE(phase, 'CLAIMED'),
+            lease_owner = :owner, lease_expires_at = CURRENT_TIMESTAMP + :leaseSeconds * INTERVAL '1 second',
+            updated_at = CURRENT_TIMESTAMP
+        WHERE id IN (:ids)
+        """, nativeQuery = true)
+    int claim(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+              @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Extend the leases held by a node, from the database clock
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE verification_request
+        SET lease_expires_at = CURRENT_TIMESTAMP + :leaseSeconds * INTERVAL '1 second'
+        WHERE id IN (:ids) AND lease_owner = :owner AND status = 'PROCESSING'
+        """, nativeQuery = true)
+    int renewLeases(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+                    @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Record the last completed phase of a request still leased by the given node
+     * @return 0 if the node no longer holds the lease
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE VerificationRequestEntity v
+        SET v.phase = :phase, v.updatedAt = CURRENT_TIMESTAMP
+        WHERE v.id = :id AND v.leaseOwner = :owner
+        AND v.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.PROCESSING
+        """)
+    int updatePhase(@Param("id") Long id, @Param("owner") String owner, @Param("phase") VerificationPhase phase);
+
+    /**
+     * Mark a request leased by the given node as FAILED and release its lease
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE VerificationRequestEntity v
+        SET v.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.FAILED,
+            v.errorMessage = :errorMessage, v.retryCount = v.retryCount + 1,
+            v.leaseOwner = NULL, v.leaseExpiresAt = NULL, v.updatedAt = CURRENT_TIMESTAMP
+        WHERE v.id = :id AND v.leaseOwner = :owner
+        """)
+    int markFailed(@Param("id") Long id, @Param("owner") String owner, @Param("errorMessage") String errorMessage);
+
+    /**
+     * Return a request leased by the given node to the queue without counting a retry,
+     * e.g. when its worker is interrupted on shutdown
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE VerificationRequestEntity v
+        SET v.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.PENDING,
+            v.leaseOwner = NULL, v.leaseExpiresAt = NULL, v.updatedAt = CURRENT_TIMESTAMP
+        WHERE v.id = :id AND v.leaseOwner = :owner
+        AND v.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.PROCESSING
+        """)
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner);
+
+    /**
+     * Mark PROCESSING requests whose lease expired (or that never had one) as FAILED when the
+     * expiry uses up their last retry, e.g. a request that keeps crashing its worker
+     */
+    @Modifying
+    @Query("""
+        UPDATE VerificationRequestEntity v
+        SET v.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.FAILED,
+            v.errorMessage = :errorMessage, v.retryCount = v.retryCount + 1,
+            v.leaseOwner = NULL, v.leaseExpiresAt = NULL, v.updatedAt = CURRENT_TIMESTAMP
+        WHERE v.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.PROCESSING
+        AND (v.leaseExpiresAt IS NULL OR v.leaseExpiresAt < CURRENT_TIMESTAMP)
+        AND v.retryCount + 1 >= :maxRetries
+        """)
+    int failExpiredLeases(@Param("maxRetries") int maxRetries, @Param("errorMessage") String errorMessage);
+
+    /**
+     * Return PROCESSING requests whose lease expired (or that never had one) to the queue,
+     * counting the expiry as a retry
+     */
+    @Modifying
+    @Query("""
+        UPDATE VerificationRequestEntity v
+        SET v.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.PENDING,
+            v.retryCount = v.retryCount + 1,
+            v.leaseOwner = NULL, v.leaseExpiresAt = NULL, v.updatedAt = CURRENT_TIMESTAMP
+        WHERE v.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.PROCESSING
+        AND (v.leaseExpiresAt IS NULL OR v.leaseExpiresAt < CURRENT_TIMESTAMP)
+        """)
+    int releaseExpiredLeases();
+
+    /**
+     * Find the most recently verified other commit of the same project built with the same compiler
+     * A null and an empty source path both denote the repository root
+     */
+    @Query("""
+        SELECT v FROM VerificationRequestEntity v
+        WHERE v.sourceUrl = :sourceUrl
+        AND COALESCE(v.sourcePath, '') = :sourcePath
+        AND v.compilerType = :compilerType AND v.compilerVersion = :compilerVersion
+        AND v.commitHash <> :commitHash
+        AND v.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.VERIFIED
+        ORDER BY v.createdAt DESC
+        LIMIT 1
+        """)
+    Optional<VerificationRequestEntity> findLatestVerifiedOtherCommit(@Param("sourceUrl") String sourceUrl,
+                                                                      @Param("sourcePath") String sourcePath,
+                                                                      @Param("compilerType") CompilerType compilerType,
+                                                                      @Param("compilerVersion") String compilerVersion,
+                                                                      @Param("commitHash") String commitHash);
+
+    /**
+     * Find verification requests by transaction hash (for audit), with their scripts
+     */
+    @EntityGraph(attributePaths = "scripts")
     List<VerificationRequestEntity> findByTxHash(String txHash);
 
     /**
@@ -58,16 +197,37 @@ public interface VerificationRequestRepository extends JpaRepository<Verificatio
     long countDistinctSourceUrlByStatus(@Param("status") VerificationStatus status);
 
     /**
-     * Find verification requests by partial source URL match (case-insensitive)
-     * @param urlPattern Pattern to search for in source URLs (e.g., "sundae-labs", "easy1staking")
-     * @return List of verified requests matching the pattern, ordered by creation time
+     * Search rank of a verification request's source URL, see SearchHit
      */
-    @Query("""
-        SELECT DISTINCT v FROM VerificationRequestEntity v
-        LEFT JOIN FETCH v.scripts
-        WHERE LOWER(v.sourceUrl) LIKE LOWER(CONCAT('%', :urlPattern, '%'))
-        AND v.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.VERIFIED
-        ORDER BY v.createdAt DESC
-        """)
-    List<VerificationRequestEntity> findBySourceUrlContaining(@Param("urlPattern") String urlPattern);
+    String SEARCH_RANK = """
+        CASE WHEN LOWER(vr.sourceUrl) LIKE :namePattern OR LOWER(vr.sourceUrl) LIKE :lastNamePattern THEN 0
+             WHEN LOWER(vr.sourceUrl) LIKE :namePrefixPattern THEN 1
+             ELSE 2 END
+        """;
+
+    /**
+     * Keyset-paginated search of verified requests by source URL substring, served by the trigram index
+     * Ordered by rank, then most recent first. Patterns are lowercase LIKE patterns.
+     * @param containsPattern Substring match, e.g. %sundae%
+     * @param namePattern Organization or group name match, e.g. %/sundae/%
+     * @param lastNamePattern Repository name match, e.g. %/sundae
+     * @param namePrefixPattern Name prefix match, e.g. %/sundae%
+     * @param afterRank Rank of the last hit of the previous page (-1 for the first page)
+     * @param afterId ID of the last hit of the previous page (Long.MAX_VALUE for the first page)
+     * @param page Page size (offset is always 0)
+     */
+    @Query("SELECT new com.easy1staking.plutusscan.dto.SearchHit(vr.id, " + SEARCH_RANK + ") " +
+           "FROM VerificationRequestEntity vr " +
+           "WHERE LOWER(vr.sourceUrl) LIKE :containsPattern " +
+           "AND vr.status = com.easy1staking.plutusscan.domain.enums.VerificationStatus.VERIFIED " +
+           "AND (" + SEARCH_RANK + " > :afterRank " +
+           "     OR (" + SEARCH_RANK + " = :afterRank AND vr.id < :afterId)) " +
+           "ORDER BY " + SEARCH_RANK + ", vr.id DESC")
+    List<SearchHit> searchBySourceUrl(@Param("containsPattern") String containsPattern,
+                                      @Param("namePattern") String namePattern,
+                                      @Param("lastNamePattern") String lastNamePattern,
+                                      @Param("namePrefixPattern") String namePrefixPattern,
+                                      @Param("afterRank") int afterRank,
+                                      @Param("afterId") long afterId,
+                                      Pageable page);
 }
@@ -0,0 +1,10 @@
+package com.easy1staking.plutusscan.dto;
+
+/**
+ * Entry of the script hash index, as streamed to build the script hash filter
+ *
+ * @param hash     Script hash bytes
+ * @param scriptId ID of the script having that hash
+ */
+public record IndexedHash(byte[] hash, Long scriptId) {
+}
@@ -0,0 +1,14 @@
+package com.easy1staking.plutusscan.dto;
+
+import com.easy1staking.plutusscan.dto.response.ScriptListResponseDto;
+
+import java.util.List;
+
+/**
+ * A page of repository search results
+ *
+ * @param results One entry per verification request, best match first
+ * @param nextCursor Cursor of the next page, null on the last page
+ */
+public record ScriptSearchPage(List<ScriptListResponseDto> results, String nextCursor) {
+}
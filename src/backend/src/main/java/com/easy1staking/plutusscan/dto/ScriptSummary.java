@@ -0,0 +1,50 @@
+package com.easy1staking.plutusscan.dto;
+
+import com.easy1staking.plutusscan.domain.enums.ParameterizationStatus;
+import com.easy1staking.plutusscan.domain.enums.PlutusVersion;
+import com.easy1staking.plutusscan.domain.enums.VerificationStatus;
+import com.easy1staking.plutusscan.model.CompilerType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only projection of a script with its verification request metadata, for lookup responses
+ * Selected column by column, so compiled code and unused columns are never loaded and no entities
+ * are managed. Script fields are null for a verification request without scripts.
+ */
+public record ScriptSummary(
+    Long verificationRequestId,
+    String txHash,
+    String sourceUrl,
+    String commitHash,
+    String sourcePath,
+    CompilerType compilerType,
+    String compilerVersion,
+    VerificationStatus status,
+    String scriptName,
+    String moduleName,
+    String validatorName,
+    String purpose,
+    String rawHash,
+    String finalHash,
+    PlutusVersion plutusVersion,
+    ParameterizationStatus parameterizationStatus,
+    List<Map<String, Object>> requiredParameters,
+    List<String> providedParameters) {
+
+    /**
+     * JPQL select clause of the projection, with "vr" the verification request and "s" the script
+     */
+    public static final String SELECT = """
+        SELECT new com.easy1staking.plutusscan.dto.ScriptSummary(
+            vr.id, vr.txHash, vr.sourceUrl, vr.commitHash, vr.sourcePath,
+            vr.compilerType, vr.compilerVersion, vr.status,
+            s.scriptName, s.moduleName, s.validatorName, s.purpose, s.rawHash, s.finalHash,
+            s.plutusVersion, s.parameterizationStatus, s.requiredParameters, s.providedParameters)
+        """;
+
+    public boolean hasScript() {
+        return rawHash != null;
+    }
+}
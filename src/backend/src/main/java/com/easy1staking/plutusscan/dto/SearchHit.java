@@ -0,0 +1,11 @@
+package com.easy1staking.plutusscan.dto;
+
+/**
+ * A verification request matching a repository search
+ *
+ * @param verificationRequestId Matching request
+ * @param rank 0 for an organization or repository name match, 1 for a name prefix match,
+ *             2 for any other substring match
+ */
+public record SearchHit(Long verificationRequestId, Integer rank) {
+}
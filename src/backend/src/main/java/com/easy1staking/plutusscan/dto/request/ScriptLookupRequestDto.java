@@ -0,0 +1,18 @@
+package com.easy1staking.plutusscan.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for a bulk script lookup
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScriptLookupRequestDto {
+    // Script hashes (hex) and bech32 addresses, mixed
+    private List<String> inputs;
+}
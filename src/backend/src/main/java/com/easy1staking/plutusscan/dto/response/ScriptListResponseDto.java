@@ -1,13 +1,15 @@
 package com.easy1staking.plutusscan.dto.response;
 
-import com.easy1staking.plutusscan.domain.entity.ScriptEntity;
-import com.easy1staking.plutusscan.domain.entity.VerificationRequestEntity;
+import com.easy1staking.plutusscan.dto.ScriptSummary;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -27,43 +29,58 @@ public class ScriptListResponseDto {
     private String status;
     private List<ScriptResponseDto> scripts;
 
-    public static ScriptListResponseDto fromEntities(List<ScriptEntity> entities) {
-        if (entities.isEmpty()) {
+    /**
+     * Other verification requests with matching scripts, most recent first
+     * (e.g. the same contract verified again from a fork); omitted when there are none
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<ScriptListResponseDto> otherRequests;
+
+    /**
+     * Response for a lookup: the first verification request's scripts, with the scripts of any
+     * other matching verification request under otherRequests
+     */
+    public static ScriptListResponseDto fromSummaries(List<ScriptSummary> summaries) {
+        List<ScriptListResponseDto> groups = groupByRequest(summaries);
+        if (groups.isEmpty()) {
             return ScriptListResponseDto.builder()
                 .scripts(List.of())
                 .build();
         }
 
-        // All scripts should have the same verification request
-        var firstScript = entities.get(0);
-        var request = firstScript.getVerificationRequest();
+        ScriptListResponseDto primary = groups.get(0);
+        if (groups.size() > 1) {
+            primary.setOtherRequests(groups.subList(1, groups.size()));
+        }
+        return primary;
+    }
 
-        return ScriptListResponseDto.builder()
-            .txHash(request.getTxHash())
-            .sourceUrl(request.getSourceUrl())
-            .commitHash(request.getCommitHash())
-            .sourcePath(request.getSourcePath())
-            .compilerType(request.getCompilerType().name())
-            .compilerVersion(request.getCompilerVersion())
-            .status(request.getStatus().name())
-            .scripts(entities.stream()
-                .map(ScriptResponseDto::fromEntity)
-                .collect(Collectors.toList()))
-            .build();
+    /**
+     * One response per verification request, in the order the requests first appear
+     */
+    public static List<ScriptListResponseDto> groupByRequest(List<ScriptSummary> summaries) {
+        Map<Long, List<ScriptSummary>> byRequest = summaries.stream()
+            .collect(Collectors.groupingBy(ScriptSummary::verificationRequestId, LinkedHashMap::new, Collectors.toList()));
+
+        return byRequest.values().stream()
+            .map(ScriptListResponseDto::forRequest)
+            .toList();
     }
 
-    public static ScriptListResponseDto fromEntity(VerificationRequestEntity entity) {
+    private static ScriptListResponseDto forRequest(List<ScriptSummary> summaries) {
+        ScriptSummary request = summaries.get(0);
         return ScriptListResponseDto.builder()
-            .txHash(entity.getTxHash())
-            .sourceUrl(entity.getSourceUrl())
-            .commitHash(entity.getCommitHash())
-            .sourcePath(entity.getSourcePath())
-            .compilerType(entity.getCompilerType() != null ? entity.getCompilerType().name() : null)
-            .compilerVersion(entity.getCompilerVersion())
-            .status(entity.getStatus() != null ? entity.getStatus().name() : null)
-            .scripts(entity.getScripts() != null ? entity.getScripts().stream()
-                .map(ScriptResponseDto::fromEntity)
-                .collect(Collectors.toList()) : List.of())
+            .txHash(request.txHash())
+            .sourceUrl(request.sourceUrl())
+            .commitHash(request.commitHash())
+            .sourcePath(request.sourcePath())
+            .compilerType(request.compilerType() != null ? request.compilerType().name() : null)
+            .compilerVersion(request.compilerVersion())
+            .status(request.status() != null ? request.status().name() : null)
+            .scripts(summaries.stream()
+                .filter(ScriptSummary::hasScript)
+                .map(ScriptResponseDto::fromSummary)
+                .collect(Collectors.toList()))
             .build();
     }
 }
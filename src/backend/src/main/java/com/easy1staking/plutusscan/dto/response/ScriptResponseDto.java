@@ -1,6 +1,7 @@
 package com.easy1staking.plutusscan.dto.response;
 
 import com.easy1staking.plutusscan.domain.entity.ScriptEntity;
+import com.easy1staking.plutusscan.dto.ScriptSummary;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,16 +30,11 @@ public class ScriptResponseDto {
     private List<String> providedParameters;
 
     public static ScriptResponseDto fromEntity(ScriptEntity entity) {
-        // Convert comma-separated purposes string to List
-        List<String> purposes = entity.getPurpose() != null && !entity.getPurpose().isEmpty()
-            ? java.util.Arrays.asList(entity.getPurpose().split(","))
-            : java.util.Collections.emptyList();
-
         return ScriptResponseDto.builder()
             .scriptName(entity.getScriptName())
             .moduleName(entity.getModuleName())
             .validatorName(entity.getValidatorName())
-            .purposes(purposes)
+            .purposes(splitPurposes(entity.getPurpose()))
             .rawHash(entity.getRawHash())
             .finalHash(entity.getFinalHash())
             .plutusVersion(entity.getPlutusVersion() != null ? entity.getPlutusVersion().name() : null)
@@ -47,4 +43,26 @@ public class ScriptResponseDto {
             .providedParameters(entity.getProvidedParameters())
             .build();
     }
+
+    public static ScriptResponseDto fromSummary(ScriptSummary summary) {
+        return ScriptResponseDto.builder()
+            .scriptName(summary.scriptName())
+            .moduleName(summary.moduleName())
+            .validatorName(summary.validatorName())
+            .purposes(splitPurposes(summary.purpose()))
+            .rawHash(summary.rawHash())
+            .finalHash(summary.finalHash())
+            .plutusVersion(summary.plutusVersion() != null ? summary.plutusVersion().name() : null)
+            .parameterizationStatus(summary.parameterizationStatus() != null ? summary.parameterizationStatus().name() : null)
+            .requiredParameters(summary.requiredParameters())
+            .providedParameters(summary.providedParameters())
+            .build();
+    }
+
+    // Convert comma-separated purposes string to List
+    private static List<String> splitPurposes(String purpose) {
+        return purpose != null && !purpose.isEmpty()
+            ? java.util.Arrays.asList(purpose.split(","))
+            : java.util.Collections.emptyList();
+    }
 }
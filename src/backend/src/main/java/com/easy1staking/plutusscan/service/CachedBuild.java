@@ -0,0 +1,43 @@
+package com.easy1staking.plutusscan.service;
+
+import com.easy1staking.plutusscan.dto.ParsedValidator;
+import com.easy1staking.plutusscan.util.Compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A cached build: the parsed validators and the original plutus.json they were parsed from
+ *
+ * @param validators           Parsed validators, null if not available (legacy entry)
+ * @param parserVersion        Version of the parser that produced validators, null if not available
+ * @param compressedPlutusJson Original plutus.json, deflate compressed
+ */
+public record CachedBuild(List<ParsedValidator> validators, String parserVersion, byte[] compressedPlutusJson) {
+
+    /**
+     * Build freshly parsed from a plutus.json file, compressed straight from the file
+     */
+    public static CachedBuild of(Path plutusJson, List<ParsedValidator> validators, String parserVersion) throws IOException {
+        try (InputStream in = Files.newInputStream(plutusJson)) {
+            return new CachedBuild(validators, parserVersion, Compression.deflate(in));
+        }
+    }
+
+    /**
+     * Whether the validators can be used as is by a parser of the given version
+     */
+    public boolean isParsedBy(String version) {
+        return validators != null && version.equals(parserVersion);
+    }
+
+    /**
+     * Original plutus.json content as a stream, decompressed as it is read
+     */
+    public InputStream openPlutusJson() {
+        return Compression.inflating(compressedPlutusJson);
+    }
+}
@@ -2,7 +2,10 @@ package com.easy1staking.plutusscan.service;
 
 import com.easy1staking.plutusscan.domain.entity.PlutusJsonCacheEntity;
 import com.easy1staking.plutusscan.domain.repository.PlutusJsonCacheRepository;
+import com.easy1staking.plutusscan.dto.ParsedValidator;
 import com.easy1staking.plutusscan.model.CompilerType;
+import com.easy1staking.plutusscan.service.plutusjson.ParsedValidatorCodec;
+import com.easy1staking.plutusscan.util.Compression;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -10,11 +13,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Map;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Service for caching plutus.json build artifacts
+ *
+ * Entries hold the parsed validators, tagged with the version of the parser that produced them, and
+ * the original plutus.json, both compressed. Entries cached before parsed validators were stored only
+ * hold the plutus.json.
  */
 @Service
 @RequiredArgsConstructor
@@ -23,67 +31,100 @@ public class PlutusJsonCacheService {
 
     private final PlutusJsonCacheRepository cacheRepository;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ParsedValidatorCodec validatorCodec = new ParsedValidatorCodec(objectMapper);
 
     /**
-     * Get cached plutus.json content
+     * Get a cached build
      *
-     * @return Optional containing JSON string if cached, empty otherwise
+     * @param sourcePath Project directory within the repository, null or empty for the root
+     * @return Optional containing the cached build, empty otherwise
      */
     @Transactional(readOnly = true)
-    public Optional<String> get(CompilerType compilerType, String sourceUrl,
-                                String commitHash, String compilerVersion) {
-        log.debug("Checking cache for {} @ {} with {} {}",
-            sourceUrl, commitHash, compilerType, compilerVersion);
+    public Optional<CachedBuild> get(CompilerType compilerType, String sourceUrl,
+                                     String commitHash, String compilerVersion, String sourcePath) {
+        log.debug("Checking cache for {} @ {} ({}) with {} {}",
+            sourceUrl, commitHash, sourcePath, compilerType, compilerVersion);
 
-        return cacheRepository.findByCompilerTypeAndSourceUrlAndCommitHashAndCompilerVersion(
-                compilerType, sourceUrl, commitHash, compilerVersion)
-            .map(entity -> {
-                try {
-                    String json = objectMapper.writeValueAsString(entity.getPlutusJsonContent());
-                    log.info("Cache hit for {} @ {}", sourceUrl, commitHash);
-                    return json;
-                } catch (JsonProcessingException e) {
-                    log.error("Failed to serialize cached plutus.json", e);
-                    return null;
+        return cacheRepository.findByCompilerTypeAndSourceUrlAndCommitHashAndCompilerVersionAndSourcePath(
+                compilerType, sourceUrl, commitHash, compilerVersion, normalizeSourcePath(sourcePath))
+            .map(this::toCachedBuild)
+            .map(build -> {
+                log.info("Cache hit for {} @ {}", sourceUrl, commitHash);
+                return build;
+            });
+    }
+
+    /**
+     * Get a cached build of the same compiler input, from any source
+     *
+     * @param inputHash Content-addressed key of the compiler input
+     * @return Optional containing the cached build, empty otherwise
+     */
+    @Transactional(readOnly = true)
+    public Optional<CachedBuild> getByInputHash(String inputHash) {
+        log.debug("Checking cache for build input {}", inputHash);
+
+        return cacheRepository.findFirstByInputHashOrderByCreatedAtDesc(inputHash)
+            .flatMap(entity -> {
+                var build = toCachedBuild(entity);
+                if (build != null) {
+                    log.info("Cache hit for build input {} (built from {} @ {})",
+                        inputHash, entity.getSourceUrl(), entity.getCommitHash());
                 }
+                return Optional.ofNullable(build);
             });
     }
 
     /**
-     * Store plutus.json content in cache
+     * Store a build in cache
+     * Insert-or-update in a single statement, an existing entry for the same key is replaced
+     *
+     * @param sourcePath Project directory within the repository, null or empty for the root
+     * @param inputHash Content-addressed key of the compiler input, null if unknown
+     * @param build Build with validators
      */
     @Transactional
-    public void put(CompilerType compilerType, String sourceUrl,
-                   String commitHash, String compilerVersion, String plutusJsonContent) {
-        try {
-            log.info("Caching plutus.json for {} @ {}", sourceUrl, commitHash);
+    public void put(CompilerType compilerType, String sourceUrl, String commitHash, String compilerVersion,
+                    String sourcePath, String inputHash, CachedBuild build) {
+        log.info("Caching build for {} @ {}", sourceUrl, commitHash);
 
-            // Parse JSON string to Map
-            @SuppressWarnings("unchecked")
-            Map<String, Object> contentMap = objectMapper.readValue(plutusJsonContent, Map.class);
+        cacheRepository.upsert(compilerType.name(), sourceUrl, commitHash, compilerVersion,
+            normalizeSourcePath(sourcePath), inputHash,
+            build.compressedPlutusJson(), validatorCodec.encode(build.validators()), build.parserVersion());
+        log.info("Successfully cached build for {} @ {}", sourceUrl, commitHash);
+    }
 
-            // Check if already exists
-            var existing = cacheRepository.findByCompilerTypeAndSourceUrlAndCommitHashAndCompilerVersion(
-                compilerType, sourceUrl, commitHash, compilerVersion);
+    /**
+     * Source path as stored in the cache key: '' for the repository root
+     */
+    private static String normalizeSourcePath(String sourcePath) {
+        return sourcePath == null ? "" : sourcePath;
+    }
 
-            if (existing.isPresent()) {
-                log.debug("Cache entry already exists, updating");
-                existing.get().setPlutusJsonContent(contentMap);
-                cacheRepository.save(existing.get());
-            } else {
-                PlutusJsonCacheEntity entity = PlutusJsonCacheEntity.builder()
-                    .compilerType(compilerType)
-                    .sourceUrl(sourceUrl)
-                    .commitHash(commitHash)
-                    .compilerVersion(compilerVersion)
-                    .plutusJsonContent(contentMap)
-                    .build();
+    /**
+     * Map an entry, falling back to the plutus.json alone when the validators cannot be used
+     */
+    private CachedBuild toCachedBuild(PlutusJsonCacheEntity entity) {
+        if (entity.getPlutusJson() == null) {
+            // Legacy entry, only the jsonb content is available
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(entity.getPlutusJsonContent());
+                return new CachedBuild(null, null, Compression.deflate(json));
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize cached plutus.json", e);
+                return null;
+            }
+        }
 
-                cacheRepository.save(entity);
-                log.info("Successfully cached plutus.json for {} @ {}", sourceUrl, commitHash);
+        List<ParsedValidator> validators = null;
+        if (entity.getValidators() != null) {
+            try {
+                validators = validatorCodec.decode(entity.getValidators());
+            } catch (UncheckedIOException e) {
+                log.warn("Ignoring unreadable cached validators of {} @ {}: {}",
+                    entity.getSourceUrl(), entity.getCommitHash(), e.getMessage());
             }
-        } catch (JsonProcessingException e) {
-            log.error("Failed to parse plutus.json for caching", e);
         }
+        return new CachedBuild(validators, validators == null ? null : entity.getParserVersion(), entity.getPlutusJson());
     }
 }
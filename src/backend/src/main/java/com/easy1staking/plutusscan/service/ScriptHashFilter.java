@@ -0,0 +1,195 @@
+package com.easy1staking.plutusscan.service;
+
+import com.easy1staking.plutusscan.domain.repository.ScriptHashIndexRepository;
+import com.easy1staking.plutusscan.dto.IndexedHash;
+import com.easy1staking.plutusscan.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of every indexed script hash, raw and final, to answer lookups of unknown hashes
+ * without a query
+ *
+ * Built at startup from a streaming scan of the script hash index. Hashes stored by this instance
+ * are added as they are indexed; hashes stored by other instances are picked up by a periodic scan
+ * of the scripts added since the last one. Until the first build completes every hash may exist.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScriptHashFilter {
+
+    // Scripts committed out of ID order are caught by rescanning this many IDs back
+    private static final long SCRIPT_ID_OVERLAP = 1000;
+
+    private final ScriptHashIndexRepository scriptHashIndexRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${hash-filter.expected-hashes:1000000}")
+    private long expectedHashes;
+
+    @Value("${hash-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private TransactionTemplate readOnlyTransaction;
+    private Counter rejections;
+
+    // Write-held only to start and finish a rebuild, so no add falls between the two filters
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private volatile BloomFilter filter;
+    // Filter being built, also given every hash added until it replaces the current one
+    private BloomFilter building;
+    private long capacity;
+    private long lastScriptId;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        filterGauge("script.hash.filter.false.positive.rate", "Target false positive rate",
+            BloomFilter::getFalsePositiveRate).tag("rate", "configured").register(meterRegistry);
+        filterGauge("script.hash.filter.false.positive.rate", "False positive rate expected for the hashes added",
+            BloomFilter::getExpectedFalsePositiveRate).tag("rate", "expected").register(meterRegistry);
+        filterGauge("script.hash.filter.hashes", "Distinct hashes added, approximate",
+            BloomFilter::getInsertions).register(meterRegistry);
+        filterGauge("script.hash.filter.size", "Off-heap size of the filter",
+            BloomFilter::getSizeBytes).baseUnit("bytes").register(meterRegistry);
+        rejections = Counter.builder("script.hash.filter.rejections")
+            .description("Lookups of unknown hashes answered without a query")
+            .register(meterRegistry);
+
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Lookups still work, only without the filter, until the next refresh builds it
+            log.error("Failed to build script hash filter", e);
+        }
+    }
+
+    /**
+     * Whether scripts with this hash may exist: false means they certainly do not
+     */
+    public boolean mightContain(byte[] hash) {
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(hash)) {
+            return true;
+        }
+        rejections.increment();
+        return false;
+    }
+
+    /**
+     * Add the hash of a script being stored
+     * Call before the script commits, so no lookup can find it stored but filtered out
+     */
+    public void add(byte[] hash) {
+        swapLock.readLock().lock();
+        try {
+            BloomFilter current = filter;
+            if (current != null) {
+                current.put(hash);
+            }
+            // The rebuild scan may have read the table before this script commits
+            if (building != null) {
+                building.put(hash);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add hashes of scripts stored since the last scan, by this or other instances
+     * Rebuilds the filter, bigger, once it holds more hashes than it was sized for
+     */
+    @Scheduled(fixedDelayString = "${hash-filter.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        BloomFilter current = filter;
+        if (current == null || current.getInsertions() > capacity) {
+            rebuild();
+            return;
+        }
+
+        long before = current.getInsertions();
+        lastScriptId = scan(current, Math.max(0, lastScriptId - SCRIPT_ID_OVERLAP));
+        log.debug("Script hash filter refreshed, {} new hashes", current.getInsertions() - before);
+    }
+
+    private synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        // Room to grow before the false positive rate degrades
+        long size = Math.max(expectedHashes, scriptHashIndexRepository.count() * 2);
+        BloomFilter next = BloomFilter.create(size, falsePositiveRate);
+        setBuilding(next);
+        try {
+            long last = scan(next, 0);
+            // Scripts added before the rebuild started went to the old filter only: rescan the tail
+            // for those that committed after the full scan read the table
+            last = Math.max(last, scan(next, Math.max(0, last - SCRIPT_ID_OVERLAP)));
+
+            filter = next;
+            capacity = size;
+            lastScriptId = last;
+        } finally {
+            setBuilding(null);
+        }
+        log.info("Script hash filter built: {} hashes, {} KB off-heap, in {} ms",
+            next.getInsertions(), next.getSizeBytes() / 1024, System.currentTimeMillis() - start);
+    }
+
+    private void setBuilding(BloomFilter next) {
+        swapLock.writeLock().lock();
+        try {
+            building = next;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add the hashes of scripts after the given one
+     *
+     * @return Highest script ID seen, at least the given one
+     */
+    private long scan(BloomFilter target, long afterScriptId) {
+        Long last = readOnlyTransaction.execute(status -> {
+            long max = afterScriptId;
+            try (Stream<IndexedHash> hashes = scriptHashIndexRepository.streamAfterScriptId(afterScriptId)) {
+                Iterator<IndexedHash> iterator = hashes.iterator();
+                while (iterator.hasNext()) {
+                    IndexedHash indexed = iterator.next();
+                    target.put(indexed.hash());
+                    max = Math.max(max, indexed.scriptId());
+                }
+            }
+            return max;
+        });
+        return Math.max(last == null ? afterScriptId : last, lastScriptId);
+    }
+
+    private Gauge.Builder<ScriptHashFilter> filterGauge(String name, String description,
+                                                        ToDoubleFunction<BloomFilter> value) {
+        return Gauge.builder(name, this, self -> {
+                BloomFilter current = self.filter;
+                return current == null ? Double.NaN : value.applyAsDouble(current);
+            })
+            .description(description);
+    }
+}
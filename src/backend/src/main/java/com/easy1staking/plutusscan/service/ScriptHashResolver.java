@@ -0,0 +1,197 @@
+package com.easy1staking.plutusscan.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Resolves script hashes and bech32 addresses to a script hash, for lookups
+ *
+ * Same results as AddressService.normalizeToScriptHash, without its per-call costs: hex is checked
+ * by hand, and addresses are bech32-decoded to their bytes to read the header and the credential,
+ * without building an Address. Recently resolved addresses are kept in a small cache. Malformed
+ * input, cheap to send in bulk, is only logged at debug level.
+ */
+@Component
+@Slf4j
+public class ScriptHashResolver {
+
+    private static final int HASH_LENGTH = 28;
+
+    // Longest Cardano bech32 address, a testnet pointer address, is well below this
+    private static final int MAX_ADDRESS_LENGTH = 200;
+
+    private static final String BECH32_CHARSET = "qpzry9x8gf2tvdw0s3jn54khce6mua7l";
+    private static final byte[] BECH32_VALUES = new byte[128];
+    private static final int[] BECH32_GENERATORS = {0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3};
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    static {
+        Arrays.fill(BECH32_VALUES, (byte) -1);
+        for (int i = 0; i < BECH32_CHARSET.length(); i++) {
+            BECH32_VALUES[BECH32_CHARSET.charAt(i)] = (byte) i;
+        }
+    }
+
+    // Null when disabled
+    private final Cache<String, Optional<String>> recentAddresses;
+
+    public ScriptHashResolver(@Value("${address-resolver.cache-size:10000}") long cacheSize) {
+        this.recentAddresses = cacheSize > 0 ? Caffeine.newBuilder().maximumSize(cacheSize).build() : null;
+    }
+
+    /**
+     * Resolve input to a script hash
+     * Accepts either a bech32 address, with a script payment or stake credential, or a hex script hash
+     *
+     * @param input Bech32 address or hex script hash
+     * @return Optional containing the script hash (lowercase hex), empty otherwise
+     */
+    public Optional<String> resolve(String input) {
+        if (input == null || input.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (input.length() == HASH_LENGTH * 2 && isHex(input)) {
+            return Optional.of(input.toLowerCase(Locale.ROOT));
+        }
+
+        Optional<String> recent = recentAddresses != null ? recentAddresses.getIfPresent(input) : null;
+        if (recent != null) {
+            return recent;
+        }
+
+        byte[] address = decodeBech32(input);
+        if (address == null) {
+            log.debug("Not a script hash or bech32 address: {}", input);
+            return Optional.empty();
+        }
+        Optional<String> scriptHash = scriptCredential(address);
+        if (recentAddresses != null) {
+            // Addresses without a script credential are cached too, malformed input is not
+            recentAddresses.put(input, scriptHash);
+        }
+        return scriptHash;
+    }
+
+    /**
+     * Script hash of the address: its payment credential if that is a script, otherwise its stake
+     * credential if that is a script (CIP-19 header types)
+     */
+    private static Optional<String> scriptCredential(byte[] address) {
+        int type = (address[0] & 0xff) >>> 4;
+        return switch (type) {
+            // Base address with a script payment credential
+            case 0b0001, 0b0011 -> address.length == 1 + 2 * HASH_LENGTH ? hex(address, 1) : Optional.empty();
+            // Base address with a key payment and a script stake credential
+            case 0b0010 -> address.length == 1 + 2 * HASH_LENGTH ? hex(address, 1 + HASH_LENGTH) : Optional.empty();
+            // Pointer address with a script payment credential
+            case 0b0101 -> address.length > 1 + HASH_LENGTH ? hex(address, 1) : Optional.empty();
+            // Enterprise address with a script credential, reward address with a script credential
+            case 0b0111, 0b1111 -> address.length == 1 + HASH_LENGTH ? hex(address, 1) : Optional.empty();
+            default -> Optional.empty();
+        };
+    }
+
+    private static Optional<String> hex(byte[] bytes, int offset) {
+        char[] chars = new char[HASH_LENGTH * 2];
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            int b = bytes[offset + i] & 0xff;
+            chars[2 * i] = HEX_DIGITS[b >>> 4];
+            chars[2 * i + 1] = HEX_DIGITS[b & 0x0f];
+        }
+        return Optional.of(new String(chars));
+    }
+
+    private static boolean isHex(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decode a bech32 string (BIP-173, without its 90 character limit) to its data bytes
+     *
+     * @return Data bytes, null if the string is not valid bech32
+     */
+    static byte[] decodeBech32(String input) {
+        int length = input.length();
+        int separator = input.lastIndexOf('1');
+        if (length > MAX_ADDRESS_LENGTH || separator < 1 || separator + 7 > length) {
+            return null;
+        }
+
+        boolean lower = false;
+        boolean upper = false;
+        int checksum = 1;
+
+        // Human-readable part: high bits, a zero, then low bits
+        for (int i = 0; i < separator; i++) {
+            char c = input.charAt(i);
+            if (c < 33 || c > 126) {
+                return null;
+            }
+            lower |= c >= 'a' && c <= 'z';
+            upper |= c >= 'A' && c <= 'Z';
+            checksum = polymodStep(checksum, Character.toLowerCase(c) >>> 5);
+        }
+        checksum = polymodStep(checksum, 0);
+        for (int i = 0; i < separator; i++) {
+            checksum = polymodStep(checksum, Character.toLowerCase(input.charAt(i)) & 31);
+        }
+
+        // Data part: 5-bit groups regrouped into bytes, then the 6 checksum characters
+        int dataLength = length - separator - 1 - 6;
+        byte[] data = new byte[dataLength * 5 / 8];
+        int accumulator = 0;
+        int bits = 0;
+        int index = 0;
+        for (int i = separator + 1; i < length; i++) {
+            char c = input.charAt(i);
+            int value = c < 128 ? BECH32_VALUES[Character.toLowerCase(c)] : -1;
+            if (value < 0) {
+                return null;
+            }
+            lower |= c >= 'a' && c <= 'z';
+            upper |= c >= 'A' && c <= 'Z';
+            checksum = polymodStep(checksum, value);
+
+            if (i < length - 6) {
+                accumulator = (accumulator << 5) | value;
+                bits += 5;
+                if (bits >= 8) {
+                    bits -= 8;
+                    data[index++] = (byte) (accumulator >>> bits);
+                    accumulator &= (1 << bits) - 1;
+                }
+            }
+        }
+
+        // Mixed case is invalid, and so is non-zero padding
+        if (checksum != 1 || (lower && upper) || bits >= 5 || accumulator != 0 || data.length == 0) {
+            return null;
+        }
+        return data;
+    }
+
+    private static int polymodStep(int checksum, int value) {
+        int top = checksum >>> 25;
+        checksum = ((checksum & 0x1ffffff) << 5) ^ value;
+        for (int i = 0; i < 5; i++) {
+            if (((top >>> i) & 1) != 0) {
+                checksum ^= BECH32_GENERATORS[i];
+            }
+        }
+        return checksum;
+    }
+}
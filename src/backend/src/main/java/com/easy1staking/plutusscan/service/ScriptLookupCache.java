@@ -0,0 +1,139 @@
+package com.easy1staking.plutusscan.service;
+
+import com.easy1staking.plutusscan.dto.ScriptSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * In-process read-through cache of script lookups by hash
+ *
+ * Verified scripts never change, so found scripts are kept until evicted or expired. Most lookups
+ * are for hashes not in the registry: those misses are cached too, with a short TTL. Entries are
+ * invalidated once new scripts for their hash are committed, on this instance directly and on the
+ * others through the script_hash Postgres notification (see VerificationNotificationListener); the
+ * miss TTL bounds how long a miss loaded concurrently with that commit can outlive it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScriptLookupCache {
+
+    static final String CACHE_NAME = "script.lookup";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${lookup-cache.max-weight:100000}")
+    private long maxWeight;
+
+    @Value("${lookup-cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${lookup-cache.miss-ttl-seconds:30}")
+    private long missTtlSeconds;
+
+    private Cache<String, List<ScriptSummary>> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+            // One unit per entry plus one per script, so entries of widely reused scripts weigh more
+            .maximumWeight(maxWeight)
+            .weigher((String hash, List<ScriptSummary> scripts) -> 1 + scripts.size())
+            .expireAfter(new CreationExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+        log.info("INIT - script lookup cache: max weight {}, TTL {}s, miss TTL {}s", maxWeight, ttlSeconds, missTtlSeconds);
+    }
+
+    /**
+     * Get the scripts of a hash, loading them on a miss
+     *
+     * @param hash Lowercase hex hash
+     * @param loader Loads the scripts of the hash, empty if none
+     */
+    public List<ScriptSummary> get(String hash, Function<String, List<ScriptSummary>> loader) {
+        return cache.get(hash, key -> List.copyOf(loader.apply(key)));
+    }
+
+    /**
+     * Get the scripts of several hashes, loading all missing ones at once
+     *
+     * @param hashes Lowercase hex hashes
+     * @param loader Loads the scripts of the missing hashes, with an empty list for hashes without scripts
+     * @return Scripts by hash, for every given hash
+     */
+    public Map<String, List<ScriptSummary>> getAll(Set<String> hashes,
+                                                   Function<Set<String>, Map<String, List<ScriptSummary>>> loader) {
+        return cache.getAll(hashes, missing -> {
+            Map<String, List<ScriptSummary>> loaded = new HashMap<>();
+            loader.apply(Set.copyOf(missing)).forEach((hash, scripts) -> loaded.put(hash, List.copyOf(scripts)));
+            return loaded;
+        });
+    }
+
+    /**
+     * Drop cached lookups of hashes that just got scripts
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScriptsCreated(ScriptsCreatedEvent event) {
+        log.debug("Scripts committed for {} hashes, invalidating cached lookups", event.hashes().size());
+        invalidate(event.hashes());
+    }
+
+    /**
+     * Drop cached lookups of the given hashes, e.g. when another instance stored scripts for them
+     *
+     * @param hashes Lowercase hex hashes
+     */
+    public void invalidate(Collection<String> hashes) {
+        cache.invalidateAll(hashes);
+    }
+
+    /**
+     * Drop all cached lookups
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Expire entries a fixed time after they are loaded, shorter for misses
+     */
+    private class CreationExpiry implements Expiry<String, List<ScriptSummary>> {
+
+        @Override
+        public long expireAfterCreate(String hash, List<ScriptSummary> scripts, long currentTime) {
+            return TimeUnit.SECONDS.toNanos(scripts.isEmpty() ? missTtlSeconds : ttlSeconds);
+        }
+
+        @Override
+        public long expireAfterUpdate(String hash, List<ScriptSummary> scripts, long currentTime, long currentDuration) {
+            return expireAfterCreate(hash, scripts, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String hash, List<ScriptSummary> scripts, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
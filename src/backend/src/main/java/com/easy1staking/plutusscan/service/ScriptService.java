@@ -8,23 +8,44 @@ import com.bloxbean.cardano.client.plutus.spec.BytesPlutusData;
 import com.bloxbean.cardano.client.plutus.spec.ListPlutusData;
 import com.bloxbean.cardano.client.plutus.spec.PlutusData;
 import com.bloxbean.cardano.client.util.HexUtil;
+import com.easy1staking.plutusscan.domain.entity.ScriptCodeEntity;
 import com.easy1staking.plutusscan.domain.entity.ScriptEntity;
 import com.easy1staking.plutusscan.domain.entity.VerificationRequestEntity;
+import com.easy1staking.plutusscan.domain.enums.CodeCompression;
 import com.easy1staking.plutusscan.domain.enums.ParameterizationStatus;
+import com.easy1staking.plutusscan.domain.enums.ScriptHashKind;
+import com.easy1staking.plutusscan.domain.repository.ScriptCodeRepository;
+import com.easy1staking.plutusscan.domain.repository.ScriptHashIndexRepository;
 import com.easy1staking.plutusscan.domain.repository.ScriptRepository;
 import com.easy1staking.plutusscan.domain.repository.VerificationRequestRepository;
 import com.easy1staking.plutusscan.dto.ParameterSchema;
 import com.easy1staking.plutusscan.dto.ParsedValidator;
+import com.easy1staking.plutusscan.dto.ScriptSearchPage;
+import com.easy1staking.plutusscan.dto.ScriptSummary;
+import com.easy1staking.plutusscan.dto.SearchHit;
 import com.easy1staking.plutusscan.dto.response.ScriptListResponseDto;
+import com.easy1staking.plutusscan.util.Compression;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * Service for managing Script entities and parameter application
@@ -34,8 +55,29 @@ import java.util.Map;
 @Slf4j
 public class ScriptService {
 
+    private static final Pattern HEX_PATTERN = Pattern.compile("^([0-9a-fA-F]{2})+$");
+
+    /**
+     * Script hash: 28 bytes of hex
+     */
+    private static final Pattern SCRIPT_HASH_PATTERN = Pattern.compile("^[0-9a-fA-F]{56}$");
+
     private final ScriptRepository scriptRepository;
+    private final ScriptCodeRepository scriptCodeRepository;
+    private final ScriptHashIndexRepository scriptHashIndexRepository;
     private final VerificationRequestRepository verificationRequestRepository;
+    private final ScriptLookupCache lookupCache;
+    private final ScriptHashFilter hashFilter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${search.min-pattern-length:3}")
+    private int minPatternLength;
+
+    @Value("${search.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${search.max-page-size:100}")
+    private int maxPageSize;
 
     /**
      * Create script entities from parsed validators
@@ -54,6 +96,8 @@ public class ScriptService {
         log.info("Creating {} scripts for verification request id={}",
                 parsedValidators.size(), request.getId());
 
+        Set<String> hashes = new HashSet<>();
+
         for (ParsedValidator parsed : parsedValidators) {
             ScriptEntity script = new ScriptEntity();
             script.setVerificationRequest(request);
@@ -63,7 +107,7 @@ public class ScriptService {
             // Convert purposes list to comma-separated string
             script.setPurpose(String.join(",", parsed.getPurposes()));
             script.setRawHash(parsed.getRawHash());
-            script.setCompiledCode(parsed.getCompiledCode());
+            storeCode(parsed.getRawHash(), parsed.getCompiledCode());
             script.setPlutusVersion(parsed.getPlutusVersion());
 
             // Convert ParameterSchema to Map for JSON storage
@@ -120,11 +164,93 @@ public class ScriptService {
             }
 
             scriptRepository.save(script);
+            indexHashes(script);
+
+            hashes.add(script.getRawHash().toLowerCase(Locale.ROOT));
+            if (script.getFinalHash() != null) {
+                hashes.add(script.getFinalHash().toLowerCase(Locale.ROOT));
+            }
         }
 
+        // Cached lookups of these hashes are stale once this commits
+        eventPublisher.publishEvent(new ScriptsCreatedEvent(hashes));
+
         log.info("Successfully created {} scripts", parsedValidators.size());
     }
 
+    /**
+     * Store compiled code in the content-addressed code store, once per script hash
+     * Deflate compressed unless that does not make it smaller
+     */
+    private void storeCode(String rawHash, String compiledCode) {
+        byte[] code = HexUtil.decodeHexString(compiledCode);
+        byte[] deflated = Compression.deflate(code);
+        boolean compress = deflated.length < code.length;
+
+        int stored = scriptCodeRepository.insertIfAbsent(
+                rawHash,
+                (compress ? CodeCompression.DEFLATE : CodeCompression.NONE).name(),
+                compress ? deflated : code,
+                code.length);
+        if (stored == 0) {
+            log.debug("Compiled code of {} already stored", rawHash);
+        }
+    }
+
+    /**
+     * Add the script's raw and final hashes to the script hash index and filter
+     */
+    private void indexHashes(ScriptEntity script) {
+        if (script.getRawHash().equals(script.getFinalHash())) {
+            indexHash(script, script.getRawHash(), ScriptHashKind.BOTH);
+            return;
+        }
+
+        indexHash(script, script.getRawHash(), ScriptHashKind.RAW);
+        if (script.getFinalHash() != null) {
+            indexHash(script, script.getFinalHash(), ScriptHashKind.FINAL);
+        }
+    }
+
+    private void indexHash(ScriptEntity script, String hash, ScriptHashKind kind) {
+        byte[] bytes = HexUtil.decodeHexString(hash);
+        hashFilter.add(bytes);
+        scriptHashIndexRepository.insert(bytes, script.getId(), kind.name());
+    }
+
+    /**
+     * Lowercase a URL pattern and strip what every source URL has in common (scheme, www., .git)
+     */
+    static String normalizeUrlPattern(String urlPattern) {
+        String pattern = urlPattern.trim().toLowerCase(Locale.ROOT);
+        pattern = pattern.replaceFirst("^[a-z][a-z0-9+.-]*://", "");
+        pattern = pattern.replaceFirst("^www\\.", "");
+        pattern = pattern.replaceFirst("\\.git/?$", "");
+        return pattern;
+    }
+
+    private static String escapeLike(String pattern) {
+        return pattern.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String encodeCursor(int rank, long verificationRequestId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((rank + ":" + verificationRequestId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new long[]{Integer.parseInt(parts[0]), Long.parseLong(parts[1])};
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException and invalid base64
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
     /**
      * Apply parameters to script and calculate final hash
      */
@@ -157,36 +283,158 @@ public class ScriptService {
 
     /**
      * Find scripts by hash (raw or final)
+     * Unknown hashes are mostly answered by the hash filter; other lookups are served from the
+     * lookup cache, including hashes that have no scripts
      */
-    @Transactional(readOnly = true)
-    public List<ScriptEntity> findByHash(String hash) {
-        return scriptRepository.findByAnyHash(hash);
+    public List<ScriptSummary> findByHash(String hash) {
+        if (hash == null || !HEX_PATTERN.matcher(hash).matches()
+                || !hashFilter.mightContain(HexUtil.decodeHexString(hash))) {
+            return List.of();
+        }
+        return lookupCache.get(hash.toLowerCase(Locale.ROOT),
+                key -> scriptRepository.findSummariesByAnyHash(HexUtil.decodeHexString(key)));
+    }
+
+    /**
+     * Find scripts by many hashes (raw or final) at once
+     * Hashes neither filtered out nor cached are loaded in a single statement
+     * @param hashes Hex hashes, invalid ones are ignored
+     * @return Scripts by lowercase hash, empty for hashes without scripts
+     */
+    public Map<String, List<ScriptSummary>> findByHashes(Collection<String> hashes) {
+        Map<String, List<ScriptSummary>> results = new HashMap<>();
+        Set<String> candidates = new HashSet<>();
+        for (String hash : hashes) {
+            if (hash == null || !HEX_PATTERN.matcher(hash).matches()) {
+                continue;
+            }
+            String key = hash.toLowerCase(Locale.ROOT);
+            if (hashFilter.mightContain(HexUtil.decodeHexString(key))) {
+                candidates.add(key);
+            } else {
+                results.put(key, List.of());
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            results.putAll(lookupCache.getAll(candidates, this::loadByHashes));
+        }
+        return results;
+    }
+
+    /**
+     * Load the scripts of each hash, most recent request first as for a single hash
+     */
+    private Map<String, List<ScriptSummary>> loadByHashes(Set<String> hashes) {
+        Map<String, List<ScriptSummary>> scripts = new HashMap<>();
+        hashes.forEach(hash -> scripts.put(hash, new ArrayList<>()));
+
+        List<byte[]> bytes = hashes.stream().map(HexUtil::decodeHexString).toList();
+        for (ScriptSummary summary : scriptRepository.findSummariesByAnyHashIn(bytes)) {
+            String rawHash = summary.rawHash().toLowerCase(Locale.ROOT);
+            String finalHash = summary.finalHash() != null ? summary.finalHash().toLowerCase(Locale.ROOT) : null;
+            if (scripts.containsKey(rawHash)) {
+                scripts.get(rawHash).add(summary);
+            }
+            if (finalHash != null && !finalHash.equals(rawHash) && scripts.containsKey(finalHash)) {
+                scripts.get(finalHash).add(summary);
+            }
+        }
+        return scripts;
     }
 
     /**
      * Find scripts by source URL and commit hash
      */
     @Transactional(readOnly = true)
-    public List<ScriptEntity> findBySourceUrlAndCommit(String sourceUrl, String commitHash) {
-        return scriptRepository.findBySourceUrlAndCommit(sourceUrl, commitHash);
+    public List<ScriptSummary> findBySourceUrlAndCommit(String sourceUrl, String commitHash) {
+        return scriptRepository.findSummariesBySourceUrlAndCommit(sourceUrl, commitHash);
     }
 
     /**
      * Search for scripts by partial source URL pattern (case-insensitive)
+     * Organization and repository name matches rank above other substring matches; results are
+     * keyset-paginated, most recent first within a rank.
      * @param urlPattern Pattern to search for (e.g., "sundae-labs", "easy1staking", "aiken-lang")
-     * @return List of script list response DTOs grouped by verification request
+     * @param cursor Cursor returned with the previous page, null for the first page
+     * @param limit Page size, null for the default; capped at search.max-page-size
+     * @return Page of script list response DTOs grouped by verification request
+     * @throws IllegalArgumentException If the pattern is too short or the cursor is invalid
      */
     @Transactional(readOnly = true)
-    public List<ScriptListResponseDto> searchByUrlPattern(String urlPattern) {
+    public ScriptSearchPage searchByUrlPattern(String urlPattern, String cursor, Integer limit) {
         log.info("Searching scripts by URL pattern: {}", urlPattern);
 
-        List<VerificationRequestEntity> requests =
-                verificationRequestRepository.findBySourceUrlContaining(urlPattern);
+        String pattern = normalizeUrlPattern(urlPattern);
+        if (pattern.length() < minPatternLength) {
+            throw new IllegalArgumentException(
+                    "URL pattern must be at least " + minPatternLength + " characters");
+        }
+
+        int pageSize = Math.min(limit != null && limit > 0 ? limit : defaultPageSize, maxPageSize);
+        int afterRank = -1;
+        long afterId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            long[] position = decodeCursor(cursor);
+            afterRank = (int) position[0];
+            afterId = position[1];
+        }
+
+        String escaped = escapeLike(pattern);
+        // One more than the page size tells whether there is a next page
+        List<SearchHit> hits = verificationRequestRepository.searchBySourceUrl(
+                "%" + escaped + "%",
+                "%/" + escaped + "/%",
+                "%/" + escaped,
+                "%/" + escaped + "%",
+                afterRank,
+                afterId,
+                PageRequest.ofSize(pageSize + 1));
+
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            SearchHit last = hits.get(hits.size() - 1);
+            nextCursor = encodeCursor(last.rank(), last.verificationRequestId());
+        }
+
+        // Scripts of the page, regrouped in hit order
+        Map<Long, Integer> positions = new HashMap<>();
+        for (SearchHit hit : hits) {
+            positions.put(hit.verificationRequestId(), positions.size());
+        }
+        List<ScriptSummary> summaries = hits.isEmpty()
+                ? List.of()
+                : scriptRepository.findSummariesByRequestIds(positions.keySet()).stream()
+                        .sorted(Comparator.comparing(summary -> positions.get(summary.verificationRequestId())))
+                        .toList();
 
-        log.info("Found {} verification requests matching pattern '{}'", requests.size(), urlPattern);
+        List<ScriptListResponseDto> results = ScriptListResponseDto.groupByRequest(summaries);
 
-        return requests.stream()
-                .map(ScriptListResponseDto::fromEntity)
-                .toList();
+        log.info("Found {} verification requests matching pattern '{}'", results.size(), urlPattern);
+
+        return new ScriptSearchPage(results, nextCursor);
+    }
+
+    /**
+     * Validate a script hash given by a client
+     * @param hash Script hash in any case
+     * @return The lowercase hash, empty if it is not 28 bytes of hex
+     */
+    public Optional<String> normalizeScriptHash(String hash) {
+        if (hash == null || !SCRIPT_HASH_PATTERN.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(hash.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Find the compiled code of a script
+     * @param rawHash Unparameterized script hash, lowercase (see {@link #normalizeScriptHash})
+     * @return Stored code, not yet decompressed
+     */
+    @Transactional(readOnly = true)
+    public Optional<ScriptCodeEntity> findCode(String rawHash) {
+        return scriptCodeRepository.findById(rawHash);
     }
 }
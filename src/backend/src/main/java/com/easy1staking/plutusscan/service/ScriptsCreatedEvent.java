@@ -0,0 +1,12 @@
+package com.easy1staking.plutusscan.service;
+
+import java.util.Set;
+
+/**
+ * Published when scripts have been stored for a verification request
+ * Listeners should react after the surrounding transaction commits
+ *
+ * @param hashes Raw and final hashes of the stored scripts, lowercase hex
+ */
+public record ScriptsCreatedEvent(Set<String> hashes) {
+}
@@ -12,6 +12,7 @@ import com.easy1staking.plutusscan.util.SourceUrlParser;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigInteger;
@@ -28,6 +29,8 @@ public class TxMetadataProcessor {
 
     private final VerificationRequestRepository verificationRequestRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Transactional(Transactional.TxType.REQUIRES_NEW)
     public void process(EventMetadata eventMetadata, TxMetadataLabel txMetadataLabel) {
         try {
@@ -103,6 +106,9 @@ public class TxMetadataProcessor {
 
             verificationRequestRepository.save(entity);
 
+            // Dispatched as soon as this transaction commits
+            eventPublisher.publishEvent(new VerificationRequestedEvent(entity.getId()));
+
             log.info("Created verification request id={} for {} @ {}, tx={}, slot={}",
                     entity.getId(),
                     plutusScanRequest.sourceUrl(),
@@ -0,0 +1,142 @@
+package com.easy1staking.plutusscan.service;
+
+import com.easy1staking.plutusscan.domain.entity.VerificationRequestEntity;
+import com.easy1staking.plutusscan.domain.repository.VerificationRequestRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Claims pending verification requests for this node
+ *
+ * Requests are locked with FOR UPDATE SKIP LOCKED and marked PROCESSING under a lease owned by
+ * this node, so several backend instances can share the queue without processing the same request.
+ * Leases are renewed while the work is in flight; leases left behind by a crashed node expire and
+ * the requests return to PENDING, or become FAILED once the expiries use up their retries.
+ * Lease expiry is always computed and compared on the database clock.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VerificationClaimService {
+
+    private final VerificationRequestRepository verificationRequestRepository;
+
+    @Value("${verification.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${verification.lease-seconds:900}")
+    private long leaseSeconds;
+
+    @Value("${verification.node-id:}")
+    private String configuredNodeId;
+
+    /**
+     * Lease owner identifying this node
+     */
+    @Getter
+    private String nodeId;
+
+    @PostConstruct
+    public void init() {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            nodeId = configuredNodeId;
+        } else {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                host = "unknown";
+            }
+            nodeId = host + "-" + ProcessHandle.current().pid();
+        }
+        log.info("INIT - verification lease owner: {}, lease: {}s", nodeId, leaseSeconds);
+    }
+
+    /**
+     * Claim up to {@code limit} of the oldest pending requests
+     *
+     * @param limit Maximum number of requests to claim
+     * @return Claimed requests (status PROCESSING, leased by this node), oldest first
+     */
+    @Transactional
+    public List<VerificationRequestEntity> claimBatch(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        List<Long> ids = verificationRequestRepository.lockPendingIds(maxRetries, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        verificationRequestRepository.claim(ids, nodeId, leaseSeconds);
+        log.info("Claimed {} verification requests: {}", ids.size(), ids);
+
+        return verificationRequestRepository.findAllById(ids).stream()
+            .sorted(Comparator.comparing(VerificationRequestEntity::getCreatedAt))
+            .toList();
+    }
+
+    /**
+     * Extend the leases of requests still being worked on by this node
+     */
+    @Transactional
+    public void renewLeases(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        int renewed = verificationRequestRepository.renewLeases(ids, nodeId, leaseSeconds);
+        log.debug("Renewed {} of {} verification leases", renewed, ids.size());
+    }
+
+    /**
+     * Return a request leased by this node to the queue, e.g. when its worker is interrupted
+     * The interrupt flag is cleared for the update (a pending interrupt can abort the connection
+     * checkout) and restored afterwards
+     */
+    public void release(Long id) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            if (verificationRequestRepository.releaseLease(id, nodeId) > 0) {
+                log.info("Released verification request id={} back to the queue", id);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to release verification request id={}, it returns once its lease expires", id, e);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Return requests with expired leases (e.g. from a crashed node) to the queue
+     * Each expiry counts as a retry, so a request that reliably kills its worker ends up FAILED
+     */
+    @Scheduled(fixedDelayString = "${verification.lease-reaper-interval-ms:60000}")
+    @Transactional
+    public void releaseExpiredLeases() {
+        int failed = verificationRequestRepository.failExpiredLeases(maxRetries,
+            "Lease expired " + maxRetries + " times, giving up");
+        if (failed > 0) {
+            log.warn("Marked {} verification requests with expired leases as FAILED (retries exhausted)", failed);
+        }
+
+        int released = verificationRequestRepository.releaseExpiredLeases();
+        if (released > 0) {
+            log.warn("Returned {} verification requests with expired leases to the queue", released);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.easy1staking.plutusscan.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Claims pending verification requests and hands them to the worker pool
+ *
+ * Dispatch is event driven: new requests (after their insert commits), Postgres notifications and
+ * finished workers wake the dispatcher up immediately. Wake-ups go through a single-slot queue, so a
+ * burst of them collapses into one dispatch round. {@link VerificationScheduler} still polls as a
+ * slow safety net.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VerificationDispatcher {
+
+    private final VerificationClaimService claimService;
+    private final VerificationWorkerPool workerPool;
+
+    private final BlockingQueue<Boolean> wakeUps = new ArrayBlockingQueue<>(1);
+
+    @Value("${verification.batch-size:10}")
+    private int batchSize;
+
+    private Thread dispatcherThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        workerPool.setCompletionListener(this::wakeUp);
+        dispatcherThread = Thread.ofVirtual().name("verification-dispatcher").start(this::dispatchLoop);
+        wakeUp();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatcherThread != null) {
+            dispatcherThread.interrupt();
+        }
+    }
+
+    /**
+     * Request a dispatch round as soon as possible
+     */
+    public void wakeUp() {
+        wakeUps.offer(Boolean.TRUE);
+    }
+
+    /**
+     * Dispatch a new verification request once its insert has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onVerificationRequested(VerificationRequestedEvent event) {
+        log.debug("Verification request id={} committed, waking up dispatcher", event.requestId());
+        wakeUp();
+    }
+
+    /**
+     * Claim pending requests in batches while the worker pool has capacity
+     */
+    public synchronized void dispatchPending() {
+        while (true) {
+            int capacity = Math.min(batchSize, workerPool.availableCapacity());
+            if (capacity == 0) {
+                log.debug("Worker pool is full, skipping dispatch");
+                return;
+            }
+
+            // Claimed requests are PROCESSING under this node's lease, other nodes skip them
+            var claimedRequests = claimService.claimBatch(capacity);
+
+            if (claimedRequests.isEmpty()) {
+                return;
+            }
+
+            // Requests already queued or running are skipped by the pool
+            long submitted = claimedRequests.stream()
+                .filter(workerPool::submit)
+                .count();
+
+            log.info("Submitted {} verification requests to the worker pool", submitted);
+
+            if (claimedRequests.size() < capacity) {
+                // Queue drained
+                return;
+            }
+        }
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                wakeUps.take();
+                dispatchPending();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Verification dispatch failed", e);
+            }
+        }
+    }
+}
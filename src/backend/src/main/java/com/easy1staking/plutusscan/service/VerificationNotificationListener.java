@@ -0,0 +1,127 @@
+package com.easy1staking.plutusscan.service;
+
+import com.bloxbean.cardano.client.util.HexUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reacts to Postgres notifications: new verification requests wake the dispatcher, newly indexed
+ * script hashes invalidate their cached lookups and are added to the hash filter
+ *
+ * Lets every backend instance react to requests inserted and scripts stored by another instance without
+ * waiting for the next poll or cache expiry. Uses a dedicated connection outside of the pool, as LISTEN
+ * is bound to the session.
+ */
+@Component
+@ConditionalOnProperty(value = "verification.dispatch.listen-notify", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class VerificationNotificationListener {
+
+    private static final String CHANNEL = "verification_request";
+
+    private static final String SCRIPT_HASH_CHANNEL = "script_hash";
+
+    private static final int NOTIFICATION_TIMEOUT_MILLIS = 10_000;
+
+    private static final long RECONNECT_DELAY_MILLIS = 5_000;
+
+    private final VerificationDispatcher dispatcher;
+    private final ScriptLookupCache lookupCache;
+    private final ScriptHashFilter hashFilter;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private Thread listenerThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        listenerThread = Thread.ofVirtual().name("verification-notify-listener").start(this::listenLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                    statement.execute("LISTEN " + SCRIPT_HASH_CHANNEL);
+                }
+                log.info("Listening for verification request and script hash notifications");
+
+                // Catch up on anything inserted while we were not listening
+                dispatcher.wakeUp();
+                lookupCache.invalidateAll();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (!Thread.currentThread().isInterrupted()) {
+                    PGNotification[] notifications = pgConnection.getNotifications(NOTIFICATION_TIMEOUT_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        handle(notifications);
+                    }
+                }
+            } catch (SQLException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                log.warn("Verification notification listener failed, reconnecting in {} ms: {}",
+                    RECONNECT_DELAY_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handle(PGNotification[] notifications) {
+        boolean newRequests = false;
+        Set<String> scriptHashes = new HashSet<>();
+        for (PGNotification notification : notifications) {
+            if (CHANNEL.equals(notification.getName())) {
+                newRequests = true;
+            } else if (SCRIPT_HASH_CHANNEL.equals(notification.getName())) {
+                scriptHashes.add(notification.getParameter());
+            }
+        }
+
+        if (newRequests) {
+            log.debug("Received verification request notifications");
+            dispatcher.wakeUp();
+        }
+        if (!scriptHashes.isEmpty()) {
+            log.debug("Received {} script hash notifications, invalidating cached lookups", scriptHashes.size());
+            scriptHashes.forEach(hash -> hashFilter.add(HexUtil.decodeHexString(hash)));
+            lookupCache.invalidate(scriptHashes);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.easy1staking.plutusscan.service;
+
+/**
+ * Published when a new verification request has been stored
+ * Listeners should react after the surrounding transaction commits
+ *
+ * @param requestId ID of the stored verification request
+ */
+public record VerificationRequestedEvent(Long requestId) {
+}
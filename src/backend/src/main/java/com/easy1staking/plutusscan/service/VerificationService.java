@@ -2,19 +2,29 @@ package com.easy1staking.plutusscan.service;
 
 import com.easy1staking.plutusscan.config.VerificationConfig;
 import com.easy1staking.plutusscan.domain.entity.VerificationRequestEntity;
+import com.easy1staking.plutusscan.domain.enums.VerificationPhase;
 import com.easy1staking.plutusscan.domain.enums.VerificationStatus;
 import com.easy1staking.plutusscan.domain.repository.VerificationRequestRepository;
 import com.easy1staking.plutusscan.dto.ParsedValidator;
+import com.easy1staking.plutusscan.model.CompilerType;
 import com.easy1staking.plutusscan.service.compiler.CompilerService;
+import com.easy1staking.plutusscan.service.plutusjson.PlutusJsonParser;
 import com.easy1staking.plutusscan.service.plutusjson.PlutusJsonParserFactory;
+import com.easy1staking.plutusscan.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
 
 /**
  * Main service for orchestrating the verification workflow
@@ -24,11 +34,39 @@ import java.util.Map;
 @Slf4j
 public class VerificationService {
 
+    private static final String CACHE_LOOKUP_METRIC = "verification.build.cache.lookups";
+    private static final String CACHE_KEY_SOURCE = "source";
+    private static final String CACHE_KEY_PREVIOUS_COMMIT = "previous_commit";
+    private static final String CACHE_KEY_TREE = "tree";
+
     private final VerificationRequestRepository verificationRequestRepository;
     private final PlutusJsonCacheService cacheService;
     private final VerificationConfig.CompilerServices compilerServices;
     private final PlutusJsonParserFactory parserFactory;
     private final ScriptService scriptService;
+    private final VerificationClaimService claimService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Identifies a build: identical concurrent requests share one compilation, and the same tuple keys
+     * the build cache, so a flight's re-check and its result always refer to the same project
+     */
+    private record BuildKey(CompilerType compilerType, String sourceUrl, String commitHash,
+                            String compilerVersion, String sourcePath) {
+
+        static BuildKey of(VerificationRequestEntity request) {
+            return new BuildKey(
+                request.getCompilerType(),
+                request.getSourceUrl(),
+                request.getCommitHash(),
+                request.getCompilerVersion(),
+                // Null and empty both denote the repository root
+                request.getSourcePath() == null ? "" : request.getSourcePath());
+        }
+    }
+
+    private final SingleFlight<BuildKey, List<ParsedValidator>> inFlightBuilds = new SingleFlight<>();
 
     @PostConstruct
     public void init() {
@@ -40,85 +78,38 @@ public class VerificationService {
     /**
      * Process a verification request
      * This is the main workflow: compile → parse → create scripts
+     * Cached builds are reused as parsed validators, plutus.json is only parsed after a build or when
+     * the cached validators come from another parser version
+     *
+     * No transaction is held while the sources are fetched and built: every phase transition is
+     * committed in its own short transaction, and the request resumes from its last completed phase.
+     * An interrupted request (e.g. on shutdown) is returned to the queue rather than marked FAILED.
      *
-     * @param request The verification request to process
+     * @param request The verification request to process, claimed by this node
      */
-    @Transactional
     public void processVerification(VerificationRequestEntity request) {
-        log.info("Processing verification request id={}, {} @ {}",
+        log.info("Processing verification request id={}, {} @ {} (phase {})",
             request.getId(),
             request.getSourceUrl(),
-            request.getCommitHash());
+            request.getCommitHash(),
+            request.getPhase());
 
         try {
-            // Update status to PROCESSING
-            request.setStatus(VerificationStatus.PROCESSING);
-            request.setErrorMessage(null);
-            verificationRequestRepository.save(request);
-
-            // Check cache
-            var cachedPlutusJson = cacheService.get(
-                request.getCompilerType(),
-                request.getSourceUrl(),
-                request.getCommitHash(),
-                request.getCompilerVersion()
-            );
-
-            String plutusJsonContent;
-            if (cachedPlutusJson.isPresent()) {
-                log.info("Using cached plutus.json for {} @ {}",
-                    request.getSourceUrl(), request.getCommitHash());
-                plutusJsonContent = cachedPlutusJson.get();
-            } else {
-                // Compile from source
-                log.info("Cache miss, compiling from source");
-
-                // Get appropriate compiler service
-                String compilerKey = request.getCompilerType().name().toLowerCase();
-                log.info("Compiler key: {}", compilerKey);
-                CompilerService compilerService = compilerServices.getCompilerServiceMap().get(compilerKey);
-
-                if (compilerService == null) {
-                    throw new IllegalStateException(
-                        "No compiler service found for type: " + request.getCompilerType());
-                }
-
-                plutusJsonContent = compilerService.compile(
-                    request.getSourceUrl(),
-                    request.getCommitHash(),
-                    request.getCompilerVersion(),
-                    request.getSourcePath()
-                );
-
-                // Cache the result
-                cacheService.put(
-                    request.getCompilerType(),
-                    request.getSourceUrl(),
-                    request.getCommitHash(),
-                    request.getCompilerVersion(),
-                    plutusJsonContent
-                );
-            }
-
-            // Parse plutus.json
             var parser = parserFactory.getParser(
                 request.getCompilerType(),
                 request.getCompilerVersion());
 
-            List<ParsedValidator> parsedValidators = parser.parse(plutusJsonContent);
+            // Compile and parse (or resume from the cached build, which holds the parsed validators)
+            List<ParsedValidator> parsedValidators = compileOrLoad(request, parser);
+            advancePhase(request, VerificationPhase.COMPILED);
 
             if (parsedValidators.isEmpty()) {
                 log.warn("No validators found in plutus.json for {} @ {}",
                     request.getSourceUrl(), request.getCommitHash());
             }
 
-            // Create script entities
-            scriptService.createScripts(request, parsedValidators);
-
-            // Update status to VERIFIED
-            request.setStatus(VerificationStatus.VERIFIED);
-            request.setErrorMessage(null);
-            verificationRequestRepository.save(request);
+            // Create script entities and mark as VERIFIED in a single transaction
+            transactionTemplate.executeWithoutResult(status -> persist(request.getId(), parsedValidators));
 
             log.info("Successfully verified {} @ {} with {} scripts",
                 request.getSourceUrl(),
@@ -126,15 +117,267 @@ public class VerificationService {
                 parsedValidators.size());
 
         } catch (Exception e) {
+            if (isInterruption(e)) {
+                log.info("Verification of {} @ {} interrupted, returning it to the queue",
+                    request.getSourceUrl(), request.getCommitHash());
+                claimService.release(request.getId());
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Verification interrupted", e);
+            }
+
             log.error("Verification failed for {} @ {}",
                 request.getSourceUrl(), request.getCommitHash(), e);
 
-            request.setRetryCount(request.getRetryCount() + 1);
-            request.setErrorMessage(e.getMessage());
-            request.setStatus(VerificationStatus.FAILED);
-            verificationRequestRepository.save(request);
+            verificationRequestRepository.markFailed(request.getId(), claimService.getNodeId(), e.getMessage());
 
             throw new RuntimeException("Verification failed", e);
         }
     }
+
+    /**
+     * Get the validators from the cache, or compile and parse plutus.json from source and cache them
+     */
+    private List<ParsedValidator> compileOrLoad(VerificationRequestEntity request, PlutusJsonParser parser) throws Exception {
+        var buildKey = BuildKey.of(request);
+
+        var cachedBuild = getCached(buildKey);
+        recordCacheLookup(CACHE_KEY_SOURCE, cachedBuild.isPresent());
+        if (cachedBuild.isPresent()) {
+            return reuse(buildKey, null, cachedBuild.get(), parser, true);
+        }
+
+        if (request.getPhase() != null && request.getPhase() != VerificationPhase.CLAIMED) {
+            log.warn("Request id={} is in phase {} but its build is not cached, compiling again",
+                request.getId(), request.getPhase());
+        }
+
+        // Get appropriate compiler service
+        String compilerKey = request.getCompilerType().name().toLowerCase();
+        log.info("Compiler key: {}", compilerKey);
+        CompilerService compilerService = compilerServices.getCompilerServiceMap().get(compilerKey);
+
+        if (compilerService == null) {
+            throw new IllegalStateException(
+                "No compiler service found for type: " + request.getCompilerType());
+        }
+
+        // Previously verified commit of the same project with unchanged compiler input
+        var previousBuild = findUnchangedPreviousBuild(compilerService, request);
+        recordCacheLookup(CACHE_KEY_PREVIOUS_COMMIT, previousBuild.isPresent());
+        if (previousBuild.isPresent()) {
+            return reuse(buildKey, null, previousBuild.get(), parser, false);
+        }
+
+        // Same compiler input built from another source or commit (forks, mirrors, unrelated changes)
+        String inputHash = resolveInputHash(compilerService, request);
+        if (inputHash != null) {
+            var cachedByInput = cacheService.getByInputHash(inputHash);
+            recordCacheLookup(CACHE_KEY_TREE, cachedByInput.isPresent());
+            if (cachedByInput.isPresent()) {
+                return reuse(buildKey, inputHash, cachedByInput.get(), parser, false);
+            }
+        }
+
+        // Identical requests processed concurrently wait for the first one's build
+        return inFlightBuilds.execute(buildKey, () -> {
+            // A build for this key may have completed between the cache check and now
+            var justCached = getCached(buildKey);
+            if (justCached.isPresent()) {
+                return reuse(buildKey, inputHash, justCached.get(), parser, true);
+            }
+
+            // Compile from source
+            log.info("Cache miss, compiling from source");
+
+            // plutus.json is parsed and compressed straight from the build output, never held as a whole
+            CachedBuild build = compilerService.compile(
+                request.getSourceUrl(),
+                request.getCommitHash(),
+                request.getCompilerVersion(),
+                request.getSourcePath(),
+                plutusJson -> {
+                    List<ParsedValidator> validators;
+                    try (InputStream in = Files.newInputStream(plutusJson)) {
+                        validators = parser.parse(in);
+                    }
+                    return CachedBuild.of(plutusJson, validators, parser.getVersion());
+                }
+            );
+
+            cacheResult(buildKey, inputHash, build);
+            return build.validators();
+        });
+    }
+
+    /**
+     * Validators of a cached build, parsed again from its plutus.json if they were produced by another
+     * parser version (or not stored at all)
+     *
+     * @param cachedUnderRequestKey false if the build was found under another key, it is then also
+     *                              cached under the request's key
+     */
+    private List<ParsedValidator> reuse(BuildKey buildKey, String inputHash, CachedBuild cachedBuild,
+                                        PlutusJsonParser parser, boolean cachedUnderRequestKey) throws IOException {
+        if (cachedBuild.isParsedBy(parser.getVersion())) {
+            if (!cachedUnderRequestKey) {
+                cacheResult(buildKey, inputHash, cachedBuild);
+            }
+            return cachedBuild.validators();
+        }
+
+        log.info("Cached build was parsed by {}, parsing again with {}",
+            cachedBuild.parserVersion(), parser.getVersion());
+        List<ParsedValidator> parsedValidators;
+        try (InputStream in = cachedBuild.openPlutusJson()) {
+            parsedValidators = parser.parse(in);
+        }
+        cacheResult(buildKey, inputHash,
+            new CachedBuild(parsedValidators, parser.getVersion(), cachedBuild.compressedPlutusJson()));
+        return parsedValidators;
+    }
+
+    private Optional<CachedBuild> getCached(BuildKey buildKey) {
+        // Check cache
+        var cachedBuild = cacheService.get(
+            buildKey.compilerType(),
+            buildKey.sourceUrl(),
+            buildKey.commitHash(),
+            buildKey.compilerVersion(),
+            buildKey.sourcePath()
+        );
+
+        if (cachedBuild.isPresent()) {
+            log.info("Using cached build for {} @ {}",
+                buildKey.sourceUrl(), buildKey.commitHash());
+        }
+        return cachedBuild;
+    }
+
+    private void cacheResult(BuildKey buildKey, String inputHash, CachedBuild build) {
+        cacheService.put(
+            buildKey.compilerType(),
+            buildKey.sourceUrl(),
+            buildKey.commitHash(),
+            buildKey.compilerVersion(),
+            buildKey.sourcePath(),
+            inputHash,
+            build
+        );
+    }
+
+    /**
+     * Cached build of the latest verified commit of the same project, if the compiler input
+     * did not change since (e.g. a new release touching only docs or off-chain code)
+     */
+    private Optional<CachedBuild> findUnchangedPreviousBuild(CompilerService compilerService, VerificationRequestEntity request) {
+        if (request.getCompilerVersion() == null || request.getCompilerVersion().isEmpty()) {
+            return Optional.empty();
+        }
+
+        var previous = verificationRequestRepository.findLatestVerifiedOtherCommit(
+            request.getSourceUrl(),
+            request.getSourcePath() == null ? "" : request.getSourcePath(),
+            request.getCompilerType(),
+            request.getCompilerVersion(),
+            request.getCommitHash());
+
+        if (previous.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String previousCommit = previous.get().getCommitHash();
+        try {
+            if (!compilerService.hasSameInput(request.getSourceUrl(), previousCommit,
+                    request.getCommitHash(), request.getSourcePath())) {
+                log.info("Compiler input changed since verified commit {}, rebuilding", previousCommit);
+                return Optional.empty();
+            }
+        } catch (Exception e) {
+            log.warn("Could not compare {} with verified commit {}: {}",
+                request.getCommitHash(), previousCommit, e.getMessage());
+            return Optional.empty();
+        }
+
+        // Under the request's own source path: other projects of a monorepo have their own builds at that commit
+        var cached = cacheService.get(
+            request.getCompilerType(),
+            request.getSourceUrl(),
+            previousCommit,
+            request.getCompilerVersion(),
+            request.getSourcePath());
+
+        cached.ifPresent(content -> log.info("Compiler input unchanged since verified commit {}, reusing its build",
+            previousCommit));
+        return cached;
+    }
+
+    /**
+     * Content-addressed key of the build input, null if it cannot be determined
+     * (the build then only uses the source key)
+     */
+    private String resolveInputHash(CompilerService compilerService, VerificationRequestEntity request) {
+        try {
+            return compilerService.resolveInputKey(
+                request.getSourceUrl(),
+                request.getCommitHash(),
+                request.getCompilerVersion(),
+                request.getSourcePath()
+            ).orElse(null);
+        } catch (Exception e) {
+            log.warn("Could not resolve build input key for {} @ {}: {}",
+                request.getSourceUrl(), request.getCommitHash(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void recordCacheLookup(String keyType, boolean hit) {
+        meterRegistry.counter(CACHE_LOOKUP_METRIC, "key_type", keyType, "result", hit ? "hit" : "miss").increment();
+    }
+
+    /**
+     * Whether processing stopped because the worker was interrupted or cancelled rather than
+     * because the request itself failed
+     */
+    private static boolean isInterruption(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException
+                || cause instanceof InterruptedIOException
+                || cause instanceof CancellationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Record a completed phase, failing if this node lost the lease in the meantime
+     */
+    private void advancePhase(VerificationRequestEntity request, VerificationPhase phase) {
+        if (verificationRequestRepository.updatePhase(request.getId(), claimService.getNodeId(), phase) == 0) {
+            throw new IllegalStateException("Lease lost for verification request id=" + request.getId());
+        }
+        request.setPhase(phase);
+    }
+
+    private void persist(Long requestId, List<ParsedValidator> parsedValidators) {
+        VerificationRequestEntity request = verificationRequestRepository.findById(requestId)
+            .orElseThrow(() -> new IllegalStateException("Verification request not found: " + requestId));
+
+        if (request.getStatus() != VerificationStatus.PROCESSING
+            || !claimService.getNodeId().equals(request.getLeaseOwner())) {
+            throw new IllegalStateException("Lease lost for verification request id=" + requestId);
+        }
+
+        scriptService.createScripts(request, parsedValidators);
+
+        request.setStatus(VerificationStatus.VERIFIED);
+        request.setPhase(VerificationPhase.PERSISTED);
+        request.setErrorMessage(null);
+        request.setLeaseOwner(null);
+        request.setLeaseExpiresAt(null);
+        verificationRequestRepository.save(request);
+    }
 }
@@ -0,0 +1,292 @@
+package com.easy1staking.plutusscan.service;
+
+import com.easy1staking.plutusscan.domain.entity.VerificationRequestEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of workers running verifications concurrently
+ *
+ * Every submitted request gets its own virtual thread which waits for, in order: a slot for its
+ * compiler version, a global worker slot, and admission by the CPU / free memory limits. At least one
+ * verification is always admitted so that the queue cannot stall on a busy host.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VerificationWorkerPool {
+
+    private static final long ADMISSION_RETRY_MILLIS = 1_000;
+
+    private static final Path MEMINFO = Path.of("/proc/meminfo");
+
+    private static final Path CGROUP_ROOT = Path.of("/sys/fs/cgroup");
+
+    private final VerificationService verificationService;
+    private final VerificationClaimService claimService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${verification.workers.size:4}")
+    private int workers;
+
+    @Value("${verification.workers.max-per-compiler-version:2}")
+    private int maxPerCompilerVersion;
+
+    @Value("${verification.workers.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${verification.admission.max-cpu-load:0.9}")
+    private double maxCpuLoad;
+
+    @Value("${verification.admission.min-free-memory-mb:512}")
+    private long minFreeMemoryMb;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<String, Semaphore> compilerVersionSlots = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Guards the admission check together with the start of the admitted verification
+     */
+    private final Object admissionLock = new Object();
+
+    private Semaphore workerSlots;
+    private Timer waitTimer;
+
+    /**
+     * Invoked whenever a request leaves the pool, so more work can be claimed
+     */
+    @Setter
+    private volatile Runnable completionListener = () -> { };
+
+    @PostConstruct
+    public void init() {
+        workerSlots = new Semaphore(workers, true);
+
+        Gauge.builder("verification.queue.depth", queued, AtomicInteger::get)
+            .description("Verification requests waiting for a worker")
+            .register(meterRegistry);
+        Gauge.builder("verification.workers.active", active, AtomicInteger::get)
+            .description("Verification requests currently being processed")
+            .register(meterRegistry);
+        waitTimer = Timer.builder("verification.queue.wait")
+            .description("Time a verification request waited for a worker")
+            .register(meterRegistry);
+
+        log.info("INIT - verification workers: {}, max per compiler version: {}", workers, maxPerCompilerVersion);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupting the workers terminates any running build process trees
+        executor.shutdownNow();
+    }
+
+    /**
+     * Keep the leases of queued and running requests alive
+     */
+    @Scheduled(fixedDelayString = "${verification.lease-renew-interval-ms:60000}")
+    public void renewLeases() {
+        try {
+            claimService.renewLeases(List.copyOf(inFlight));
+        } catch (Exception e) {
+            log.warn("Failed to renew verification leases", e);
+        }
+    }
+
+    /**
+     * Number of additional requests the pool accepts right now
+     */
+    public int availableCapacity() {
+        return Math.max(0, workers + queueCapacity - inFlight.size());
+    }
+
+    /**
+     * Submit a request for processing
+     *
+     * @param request The verification request
+     * @return false if the request is already queued or running in this pool, or the pool is shut down
+     */
+    public boolean submit(VerificationRequestEntity request) {
+        if (!inFlight.add(request.getId())) {
+            return false;
+        }
+
+        queued.incrementAndGet();
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.submit(() -> run(request, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            log.info("Worker pool shut down, returning verification request id={} to the queue", request.getId());
+            queued.decrementAndGet();
+            inFlight.remove(request.getId());
+            claimService.release(request.getId());
+            return false;
+        }
+        return true;
+    }
+
+    private void run(VerificationRequestEntity request, long enqueuedAt) {
+        String versionKey = request.getCompilerType() + ":" + request.getCompilerVersion();
+        Semaphore versionSlots = compilerVersionSlots.computeIfAbsent(versionKey,
+            key -> new Semaphore(maxPerCompilerVersion, true));
+
+        boolean workerAcquired = false;
+        boolean versionAcquired = false;
+        boolean started = false;
+        try {
+            // Version slot first, so a request blocked on its version does not hold a worker slot
+            versionSlots.acquire();
+            versionAcquired = true;
+            workerSlots.acquire();
+            workerAcquired = true;
+            awaitAdmission();
+
+            queued.decrementAndGet();
+            started = true;
+            waitTimer.record(Duration.ofNanos(System.nanoTime() - enqueuedAt));
+
+            log.info("Processing verification request id={}, {} @ {}",
+                request.getId(),
+                request.getSourceUrl(),
+                request.getCommitHash());
+
+            verificationService.processVerification(request);
+
+        } catch (InterruptedException e) {
+            log.info("Verification request id={} interrupted", request.getId());
+            // Interrupted while waiting for a slot, the request was never processed
+            claimService.release(request.getId());
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Unexpected error processing verification request id={}",
+                request.getId(), e);
+            // Error is already handled in VerificationService
+            // (status set to FAILED, retry count incremented, or returned to the queue on interrupt)
+        } finally {
+            if (started) {
+                active.decrementAndGet();
+            } else {
+                queued.decrementAndGet();
+            }
+            if (versionAcquired) {
+                versionSlots.release();
+            }
+            if (workerAcquired) {
+                workerSlots.release();
+            }
+            inFlight.remove(request.getId());
+            completionListener.run();
+        }
+    }
+
+    /**
+     * Block until the host has enough CPU and memory headroom for another build, then count it as active
+     * Always admits when nothing else is running. The check and the increment happen under one lock,
+     * so concurrent waiters cannot all be admitted on the same idle reading.
+     */
+    private void awaitAdmission() throws InterruptedException {
+        while (true) {
+            synchronized (admissionLock) {
+                if (active.get() == 0 || hasHeadroom()) {
+                    active.incrementAndGet();
+                    return;
+                }
+            }
+            Thread.sleep(ADMISSION_RETRY_MILLIS);
+        }
+    }
+
+    private boolean hasHeadroom() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            double cpuLoad = os.getCpuLoad();
+            long availableMemoryMb = availableMemoryBytes().orElse(os.getFreeMemorySize()) / (1024 * 1024);
+            if (cpuLoad > maxCpuLoad || availableMemoryMb < minFreeMemoryMb) {
+                log.debug("Admission deferred: cpu load {}, available memory {} MB", cpuLoad, availableMemoryMb);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Memory available for new work, counting reclaimable page cache as available (unlike MemFree):
+     * the lower of the host's MemAvailable and, under a cgroup v2 limit, memory.max minus
+     * memory.current plus inactive_file
+     */
+    static OptionalLong availableMemoryBytes() {
+        OptionalLong host = readMemAvailable();
+        OptionalLong cgroup = readCgroupAvailable();
+        if (host.isPresent() && cgroup.isPresent()) {
+            return OptionalLong.of(Math.min(host.getAsLong(), cgroup.getAsLong()));
+        }
+        return host.isPresent() ? host : cgroup;
+    }
+
+    private static OptionalLong readMemAvailable() {
+        try {
+            for (String line : Files.readAllLines(MEMINFO)) {
+                if (line.startsWith("MemAvailable:")) {
+                    // "MemAvailable:   12345678 kB"
+                    return OptionalLong.of(Long.parseLong(line.replaceAll("\\D+", "")) * 1024);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Could not read MemAvailable: {}", e.getMessage());
+        }
+        return OptionalLong.empty();
+    }
+
+    private static OptionalLong readCgroupAvailable() {
+        try {
+            Path max = CGROUP_ROOT.resolve("memory.max");
+            if (!Files.exists(max)) {
+                return OptionalLong.empty();
+            }
+            String limit = Files.readString(max).trim();
+            if (limit.equals("max")) {
+                return OptionalLong.empty();
+            }
+
+            long current = Long.parseLong(Files.readString(CGROUP_ROOT.resolve("memory.current")).trim());
+            long inactiveFile = 0;
+            for (String line : Files.readAllLines(CGROUP_ROOT.resolve("memory.stat"))) {
+                if (line.startsWith("inactive_file ")) {
+                    inactiveFile = Long.parseLong(line.substring("inactive_file ".length()).trim());
+                    break;
+                }
+            }
+            return OptionalLong.of(Math.max(0, Long.parseLong(limit) - current + inactiveFile));
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Could not read cgroup memory: {}", e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+}
@@ -2,22 +2,30 @@ package com.easy1staking.plutusscan.service.compiler;
 
 import com.easy1staking.plutusscan.exception.CompilationException;
 import com.easy1staking.plutusscan.model.CompilerType;
+import com.easy1staking.plutusscan.service.shell.ProcessResult;
 import com.easy1staking.plutusscan.service.shell.ShellCommandExecutor;
+import com.easy1staking.plutusscan.service.workspace.BuildWorkspace;
+import com.easy1staking.plutusscan.service.workspace.BuildWorkspaceManager;
 import com.easy1staking.plutusscan.util.SourceUrlParser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
 /**
  * Compiler service for Aiken smart contracts
- * Handles git clone, aikup version installation, and aiken build
+ * Handles git checkout (from a local mirror), toolchain selection, and aiken build
  */
 @Service
 @RequiredArgsConstructor
@@ -25,49 +33,46 @@ import java.nio.file.Paths;
 public class AikenCompilerService implements CompilerService {
 
     private final ShellCommandExecutor shellExecutor;
+    private final GitMirrorStore gitMirrorStore;
+    private final AikenToolchainRegistry toolchainRegistry;
+    private final AikenPackageStore packageStore;
+    private final BuildWorkspaceManager workspaceManager;
+
+    /**
+     * Project entries (relative to the source path) that determine the output of aiken build
+     */
+    private static final List<String> BUILD_INPUTS = List.of("aiken.toml", "aiken.lock", "validators", "lib", "env");
+
+    /**
+     * Build failures that may be caused by files missing from a sparse checkout
+     * Anything else (type errors, parse errors, failing tests) fails the same way on a full checkout
+     */
+    private static final Pattern MISSING_PATH_ERROR = Pattern.compile(
+        "No such file or directory|Unknown module|could(?:n't| not) find", Pattern.CASE_INSENSITIVE);
 
     @Value("${verification.build-timeout-seconds:300}")
     private long buildTimeoutSeconds;
 
-    @Value("${verification.temp-dir:/tmp/plutus-scan-builds}")
-    private String tempDirBase;
-
     @Override
-    public String compile(String sourceUrl, String commitHash,
-                         String compilerVersion, String sourcePath)
+    public <T> T compile(String sourceUrl, String commitHash,
+                         String compilerVersion, String sourcePath, OutputHandler<T> outputHandler)
             throws CompilationException {
 
-        Path buildDir = null;
-        try {
-            // Parse source URL
-            var parsedUrl = SourceUrlParser.parse(sourceUrl)
-                    .orElseThrow(() -> new CompilationException("Invalid source URL: " + sourceUrl));
-
-            // Create base temp directory if it doesn't exist
-            Path tempBase = Paths.get(tempDirBase);
-            if (!Files.exists(tempBase)) {
-                Files.createDirectories(tempBase);
-                log.info("Created temp directory base: {}", tempBase);
-            }
+        // Parse source URL
+        var parsedUrl = SourceUrlParser.parse(sourceUrl)
+                .orElseThrow(() -> new CompilationException("Invalid source URL: " + sourceUrl));
 
-            // Create temporary directory for this build
-            buildDir = Files.createTempDirectory(tempBase, "aiken-build-");
-            log.info("Created build directory: {}", buildDir);
+        // Temporary workspace for this build, deleted in the background once closed
+        try (BuildWorkspace workspace = workspaceManager.create()) {
+            Path buildDir = workspace.getDirectory();
 
             String repoUrl = parsedUrl.getCloneUrl();
             Path repoDir = buildDir.resolve("repo");
 
-            // Clone repository
-            log.info("Cloning {} (from {}) at commit {}", repoUrl, parsedUrl.getVcsType(), commitHash);
-            shellExecutor.execute(
-                String.format("git clone %s %s", repoUrl, repoDir),
-                buildDir,
-                buildTimeoutSeconds);
-
-            shellExecutor.execute(
-                String.format("git checkout %s", commitHash),
-                repoDir,
-                buildTimeoutSeconds);
+            // Check out repository from the local mirror (fetching only missing objects)
+            log.info("Checking out {} (from {}) at commit {}", repoUrl, parsedUrl.getVcsType(), commitHash);
+            gitMirrorStore.checkout(parsedUrl, commitHash, repoDir, sourcePath);
+            boolean sparse = gitMirrorStore.isSparse(sourcePath);
 
             // Change to source path if specified
             Path workDir = repoDir;
@@ -80,49 +85,110 @@ public class AikenCompilerService implements CompilerService {
                 log.info("Using source path: {}", workDir);
             }
 
-            // Install Aiken version if specified
-            if (compilerVersion != null && !compilerVersion.isEmpty()) {
-                log.info("Installing Aiken version: {}", compilerVersion);
-                shellExecutor.execute(
-                    String.format("aikup install %s", compilerVersion),
-                    workDir,
-                    buildTimeoutSeconds);
-            }
+            // Drop checked-in packages and reuse dependency packages downloaded by earlier builds
+            packageStore.seed(workDir);
 
-            // Build with Aiken
-            log.info("Building Aiken project in: {}", workDir);
-            var buildResult = shellExecutor.execute(
-                "aiken build",
-                workDir,
-                buildTimeoutSeconds);
+            // Lease the isolated toolchain for this version (installed once, invoked by absolute path)
+            ProcessResult buildResult;
+            try (var toolchain = toolchainRegistry.acquire(compilerVersion)) {
+                String buildCommand = toolchain.getAikenCommand() + " build";
+
+                log.info("Building Aiken project in: {} with {}", workDir, toolchain.getAikenCommand());
+                try {
+                    buildResult = shellExecutor.execute(
+                        buildCommand,
+                        workDir,
+                        buildTimeoutSeconds,
+                        line -> log.debug("[aiken] {}", line));
+                } catch (IOException e) {
+                    if (!sparse || e.getMessage() == null || !MISSING_PATH_ERROR.matcher(e.getMessage()).find()) {
+                        throw e;
+                    }
+                    // The build needs files outside the sparse cone, retry once with a full checkout
+                    log.warn("Build failed on sparse checkout of {}, retrying with full checkout", sourcePath);
+                    gitMirrorStore.expandToFullCheckout(repoDir);
+                    // The full tree may bring a checked-in build/packages with it
+                    packageStore.seed(workDir);
+                    buildResult = shellExecutor.execute(
+                        buildCommand,
+                        workDir,
+                        buildTimeoutSeconds,
+                        line -> log.debug("[aiken] {}", line));
+                }
+            }
 
             log.info("Build completed successfully");
+            packageStore.populate(workDir);
             log.debug("Build output: {}", buildResult.getStdout());
 
-            // Read plutus.json
+            // Hand plutus.json to the caller while the workspace still exists
             Path plutusJsonPath = workDir.resolve("plutus.json");
-            if (!Files.exists(plutusJsonPath)) {
+            if (!Files.isRegularFile(plutusJsonPath)) {
                 throw new CompilationException(
                     "plutus.json not found after build. Build may have failed.");
             }
 
-            String plutusJsonContent = Files.readString(plutusJsonPath);
-            log.info("Successfully read plutus.json ({} bytes)", plutusJsonContent.length());
-
-            return plutusJsonContent;
+            log.info("Build produced plutus.json ({} bytes)", Files.size(plutusJsonPath));
+            return outputHandler.handle(plutusJsonPath);
 
         } catch (IOException e) {
             throw new CompilationException("IO error during compilation: " + e.getMessage(), e);
-        } finally {
-            // Cleanup temporary directory
-            if (buildDir != null) {
-                try {
-                    FileUtils.deleteDirectory(buildDir.toFile());
-                    log.debug("Cleaned up build directory: {}", buildDir);
-                } catch (IOException e) {
-                    log.warn("Failed to cleanup build directory: {}", buildDir, e);
-                }
-            }
+        }
+    }
+
+    /**
+     * Hash of the compiler version and the git tree entries of the project's build inputs
+     * Only available for pinned compiler versions and locked dependencies, otherwise the same
+     * input may not produce the same output
+     */
+    @Override
+    public Optional<String> resolveInputKey(String sourceUrl, String commitHash,
+                                            String compilerVersion, String sourcePath)
+            throws CompilationException {
+        if (compilerVersion == null || compilerVersion.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var parsedUrl = SourceUrlParser.parse(sourceUrl)
+                .orElseThrow(() -> new CompilationException("Invalid source URL: " + sourceUrl));
+
+        String entries;
+        try {
+            entries = gitMirrorStore.listTree(parsedUrl, commitHash, sourcePath, BUILD_INPUTS);
+        } catch (IOException e) {
+            throw new CompilationException("Failed to read build inputs: " + e.getMessage(), e);
+        }
+
+        boolean locked = entries.lines().anyMatch(line -> line.endsWith("\taiken.lock"));
+        if (!locked) {
+            log.info("No aiken.lock in {} @ {}, build input key not available", sourceUrl, commitHash);
+            return Optional.empty();
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((getCompilerType() + "\n" + compilerVersion + "\n" + entries).getBytes(StandardCharsets.UTF_8));
+            return Optional.of(HexFormat.of().formatHex(digest.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean hasSameInput(String sourceUrl, String fromCommit, String toCommit, String sourcePath)
+            throws CompilationException {
+        var parsedUrl = SourceUrlParser.parse(sourceUrl)
+                .orElseThrow(() -> new CompilationException("Invalid source URL: " + sourceUrl));
+
+        String prefix = sourcePath == null ? "" : sourcePath.replaceAll("^/+|/+$", "");
+        List<String> inputPaths = BUILD_INPUTS.stream()
+                .map(input -> prefix.isEmpty() ? input : prefix + "/" + input)
+                .toList();
+
+        try {
+            return !gitMirrorStore.hasChanges(parsedUrl, fromCommit, toCommit, inputPaths);
+        } catch (IOException e) {
+            throw new CompilationException("Failed to compare build inputs: " + e.getMessage(), e);
         }
     }
 
@@ -0,0 +1,396 @@
+package com.easy1staking.plutusscan.service.compiler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.toml.TomlMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Shared store of downloaded Aiken dependency packages, keyed by package name, source and version
+ *
+ * Before a build, any build/packages that came with the checkout is deleted, then the packages
+ * pinned in the project's aiken.lock are seeded from {temp-dir}/packages/{owner}-{repo}@{source}/{version}
+ * into build/packages as read-only copies and listed in build/packages/packages.toml, so aiken only
+ * downloads what is missing. After a successful build, the packages aiken downloaded are added to
+ * the store together with a SHA-256 digest of their content; a stored package is only seeded while
+ * its content still matches that digest. Only immutable versions (release tags and commit hashes)
+ * are stored; branch references such as "main" are always downloaded. The store is bounded by
+ * verification.packages.max-disk-mb, least recently used packages are evicted first.
+ */
+@Component
+@Slf4j
+public class AikenPackageStore {
+
+    private static final Pattern PACKAGE_NAME_PATTERN = Pattern.compile("^[A-Za-z0-9_.-]+/[A-Za-z0-9_.-]+$");
+
+    private static final Pattern SOURCE_PATTERN = Pattern.compile("^[a-z]+$");
+
+    private static final Pattern IMMUTABLE_VERSION_PATTERN =
+        Pattern.compile("^(v?\\d+\\.\\d+\\.\\d+[A-Za-z0-9_.-]*|[0-9a-f]{40})$");
+
+    /**
+     * Marker written once a package has been stored completely, holding the digest of its content
+     * Its modification time records when the package was last used
+     */
+    private static final String STORED_MARKER = ".stored";
+
+    private final TomlMapper tomlMapper = new TomlMapper();
+
+    /**
+     * Seeding holds the read lock, eviction the write lock, so packages are never removed mid-copy
+     */
+    private final ReentrantReadWriteLock storeLock = new ReentrantReadWriteLock();
+
+    @Value("${verification.temp-dir:/tmp/plutus-scan-builds}")
+    private String tempDirBase;
+
+    @Value("${verification.packages.enabled:true}")
+    private boolean enabled;
+
+    @Value("${verification.packages.max-disk-mb:1024}")
+    private long maxDiskMb;
+
+    /**
+     * A dependency pinned in aiken.lock
+     */
+    record LockedPackage(String name, String version, String source) {
+
+        /**
+         * Directory name aiken uses under build/packages
+         */
+        String directoryName() {
+            return name.replace('/', '-');
+        }
+    }
+
+    /**
+     * Seed the project's build/packages with the stored packages pinned in its aiken.lock
+     * Packages checked in with the project are discarded first, so the build only ever uses packages
+     * downloaded by aiken or verified copies from the store
+     *
+     * @param projectDir Aiken project directory (containing aiken.toml)
+     * @return Number of packages seeded
+     * @throws IOException If packages that came with the checkout cannot be removed
+     */
+    public int seed(Path projectDir) throws IOException {
+        discardCheckedOutPackages(projectDir);
+        if (!enabled) {
+            return 0;
+        }
+
+        List<LockedPackage> seeded = new ArrayList<>();
+        List<Path> corrupted = new ArrayList<>();
+        Path packagesDir = projectDir.resolve("build").resolve("packages");
+
+        storeLock.readLock().lock();
+        try {
+            for (LockedPackage lockedPackage : readLockedPackages(projectDir)) {
+                Path stored = storedPackageDir(lockedPackage);
+                Path marker = stored.resolve(STORED_MARKER);
+                if (!Files.exists(marker)) {
+                    continue;
+                }
+
+                Path target = packagesDir.resolve(lockedPackage.directoryName());
+                try {
+                    if (!contentDigest(stored).equals(Files.readString(marker).trim())) {
+                        log.warn("Stored package {} {} does not match its digest, discarding it",
+                            lockedPackage.name(), lockedPackage.version());
+                        corrupted.add(stored);
+                        continue;
+                    }
+                    copyReadOnly(stored, target);
+                    Files.setLastModifiedTime(marker, FileTime.fromMillis(System.currentTimeMillis()));
+                    seeded.add(lockedPackage);
+                } catch (IOException e) {
+                    log.warn("Failed to seed package {} {}: {}", lockedPackage.name(), lockedPackage.version(), e.getMessage());
+                    FileUtils.deleteQuietly(target.toFile());
+                }
+            }
+
+            if (!seeded.isEmpty()) {
+                writePackagesManifest(packagesDir, seeded);
+                log.info("Seeded {} Aiken packages into {}", seeded.size(), packagesDir);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to seed Aiken packages into {}: {}", packagesDir, e.getMessage());
+        } finally {
+            storeLock.readLock().unlock();
+        }
+
+        if (!corrupted.isEmpty()) {
+            storeLock.writeLock().lock();
+            try {
+                corrupted.forEach(stored -> FileUtils.deleteQuietly(stored.toFile()));
+            } finally {
+                storeLock.writeLock().unlock();
+            }
+        }
+
+        return seeded.size();
+    }
+
+    /**
+     * Delete build/packages if the checkout contains one (or a build symlink pointing elsewhere)
+     * Its content is controlled by the submitted repository and must neither be built nor stored
+     */
+    private void discardCheckedOutPackages(Path projectDir) throws IOException {
+        Path buildDir = projectDir.resolve("build");
+        if (Files.isSymbolicLink(buildDir)) {
+            log.warn("Removing checked-in build symlink {}", buildDir);
+            Files.delete(buildDir);
+            return;
+        }
+
+        Path packagesDir = buildDir.resolve("packages");
+        if (Files.exists(packagesDir, LinkOption.NOFOLLOW_LINKS)) {
+            log.warn("Removing checked-in Aiken packages {}", packagesDir);
+            if (Files.isSymbolicLink(packagesDir)) {
+                Files.delete(packagesDir);
+            } else {
+                FileUtils.deleteDirectory(packagesDir.toFile());
+            }
+        }
+    }
+
+    /**
+     * Add the packages downloaded by a successful build to the store
+     * Must follow {@link #seed} on the same project, which removed any packages that came with the
+     * checkout: everything left in build/packages that is not stored yet was downloaded by aiken
+     *
+     * @param projectDir Aiken project directory that was just built
+     */
+    public void populate(Path projectDir) {
+        if (!enabled) {
+            return;
+        }
+
+        Path packagesDir = projectDir.resolve("build").resolve("packages");
+        boolean added = false;
+
+        try {
+            for (LockedPackage lockedPackage : readLockedPackages(projectDir)) {
+                Path stored = storedPackageDir(lockedPackage);
+                Path downloaded = packagesDir.resolve(lockedPackage.directoryName());
+                if (Files.exists(stored.resolve(STORED_MARKER))
+                    || !Files.isDirectory(downloaded, LinkOption.NOFOLLOW_LINKS)) {
+                    continue;
+                }
+                if (containsSymbolicLinks(downloaded)) {
+                    log.warn("Not storing package {} {}: contains symbolic links", lockedPackage.name(), lockedPackage.version());
+                    continue;
+                }
+
+                // Copy next to the final location, then move into place so readers never see a partial package
+                Path staging = Files.createTempDirectory(
+                    Files.createDirectories(stored.getParent()), stored.getFileName() + ".tmp-");
+                try {
+                    copyReadOnly(downloaded, staging);
+                    Files.writeString(staging.resolve(STORED_MARKER), contentDigest(staging));
+                    Files.move(staging, stored, StandardCopyOption.ATOMIC_MOVE);
+                    log.info("Stored Aiken package {} {}", lockedPackage.name(), lockedPackage.version());
+                    added = true;
+                } catch (IOException e) {
+                    // Most likely stored concurrently by another build
+                    log.debug("Could not store package {} {}: {}", lockedPackage.name(), lockedPackage.version(), e.getMessage());
+                } finally {
+                    FileUtils.deleteQuietly(staging.toFile());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to store Aiken packages from {}: {}", packagesDir, e.getMessage());
+        }
+
+        if (added) {
+            evictOverBudget();
+        }
+    }
+
+    /**
+     * Read the immutable, well-formed package pins from aiken.lock
+     */
+    List<LockedPackage> readLockedPackages(Path projectDir) throws IOException {
+        Path lockFile = projectDir.resolve("aiken.lock");
+        if (!Files.exists(lockFile)) {
+            return List.of();
+        }
+
+        JsonNode packages = tomlMapper.readTree(lockFile.toFile()).path("packages");
+        List<LockedPackage> lockedPackages = new ArrayList<>();
+        for (JsonNode node : packages) {
+            var lockedPackage = new LockedPackage(
+                node.path("name").asText(),
+                node.path("version").asText(),
+                node.path("source").asText("github"));
+
+            if (PACKAGE_NAME_PATTERN.matcher(lockedPackage.name()).matches()
+                && SOURCE_PATTERN.matcher(lockedPackage.source()).matches()
+                && IMMUTABLE_VERSION_PATTERN.matcher(lockedPackage.version()).matches()) {
+                lockedPackages.add(lockedPackage);
+            } else {
+                log.debug("Not caching package {} {}", lockedPackage.name(), lockedPackage.version());
+            }
+        }
+        return lockedPackages;
+    }
+
+    /**
+     * Write build/packages/packages.toml so aiken treats the seeded packages as already downloaded
+     */
+    private void writePackagesManifest(Path packagesDir, List<LockedPackage> packages) throws IOException {
+        StringBuilder manifest = new StringBuilder();
+        for (LockedPackage lockedPackage : packages) {
+            manifest.append("[[packages]]\n")
+                .append("name = \"").append(lockedPackage.name()).append("\"\n")
+                .append("version = \"").append(lockedPackage.version()).append("\"\n")
+                .append("source = \"").append(lockedPackage.source().replace("\"", "")).append("\"\n\n");
+        }
+        Files.writeString(packagesDir.resolve("packages.toml"), manifest.toString());
+    }
+
+    /**
+     * Copy a package, making every file read-only so neither a build nor the store can change it in place
+     * Directories stay writable, so the copy can still be deleted
+     */
+    private void copyReadOnly(Path source, Path target) throws IOException {
+        try (Stream<Path> files = Files.walk(source)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Path relative = source.relativize(file);
+                if (relative.toString().equals(STORED_MARKER)) {
+                    continue;
+                }
+                Path destination = target.resolve(relative.toString());
+                if (Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.createDirectories(destination);
+                } else if (Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.copy(file, destination, LinkOption.NOFOLLOW_LINKS);
+                    destination.toFile().setWritable(false, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * SHA-256 over the relative path and content of every file of a package, in path order
+     */
+    String contentDigest(Path packageDir) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(packageDir)) {
+            files = walk
+                .filter(file -> Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS))
+                .filter(file -> !packageDir.relativize(file).toString().equals(STORED_MARKER))
+                .sorted()
+                .toList();
+        }
+
+        byte[] buffer = new byte[8192];
+        for (Path file : files) {
+            digest.update(packageDir.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Long.toString(Files.size(file)).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                while (in.read(buffer) != -1) {
+                    // Digested while reading
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private boolean containsSymbolicLinks(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.anyMatch(Files::isSymbolicLink);
+        }
+    }
+
+    /**
+     * Remove the least recently used packages until the store fits in its disk budget
+     */
+    private void evictOverBudget() {
+        Path root = storeRoot();
+        long budget = maxDiskMb * 1024 * 1024;
+
+        storeLock.writeLock().lock();
+        try (Stream<Path> packageDirs = Files.list(root)) {
+            List<Path> versions = packageDirs
+                .filter(Files::isDirectory)
+                .flatMap(this::listStoredVersions)
+                .sorted(Comparator.comparing(this::lastUsed))
+                .toList();
+
+            long total = 0;
+            List<Long> sizes = new ArrayList<>();
+            for (Path version : versions) {
+                long size = FileUtils.sizeOfDirectory(version.toFile());
+                sizes.add(size);
+                total += size;
+            }
+
+            for (int i = 0; i < versions.size() && total > budget; i++) {
+                log.info("Evicting least recently used Aiken package {}", root.relativize(versions.get(i)));
+                FileUtils.deleteQuietly(versions.get(i).toFile());
+                total -= sizes.get(i);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to evict Aiken packages from {}", root, e);
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    private Stream<Path> listStoredVersions(Path packageDir) {
+        try (Stream<Path> versions = Files.list(packageDir)) {
+            return versions.filter(version -> Files.exists(version.resolve(STORED_MARKER))).toList().stream();
+        } catch (IOException e) {
+            return Stream.empty();
+        }
+    }
+
+    private FileTime lastUsed(Path versionDir) {
+        try {
+            return Files.getLastModifiedTime(versionDir.resolve(STORED_MARKER));
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Path storedPackageDir(LockedPackage lockedPackage) {
+        // Keyed by source as well: the same name on another host is another package
+        return storeRoot().resolve(lockedPackage.directoryName() + "@" + lockedPackage.source())
+            .resolve(lockedPackage.version());
+    }
+
+    private Path storeRoot() {
+        return Paths.get(tempDirBase, "packages").toAbsolutePath().normalize();
+    }
+}
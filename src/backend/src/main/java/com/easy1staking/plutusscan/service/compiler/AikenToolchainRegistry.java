@@ -0,0 +1,244 @@
+package com.easy1staking.plutusscan.service.compiler;
+
+import com.easy1staking.plutusscan.service.shell.ShellCommandExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Registry of installed Aiken toolchains, one isolated directory per compiler version
+ *
+ * Each version is installed once with aikup into {temp-dir}/toolchains/aiken/{version}, using that
+ * directory as HOME so the global ~/.aiken/bin default is never switched. Builds invoke the exact
+ * aiken binary by absolute path, so parallel builds with different versions do not interfere.
+ * Installed versions form an LRU pool bounded by verification.toolchain.max-installed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AikenToolchainRegistry {
+
+    private static final Pattern VERSION_PATTERN = Pattern.compile("^v?\\d+\\.\\d+\\.\\d+(-[A-Za-z0-9.]+)?$");
+
+    /**
+     * Marker written once an install has completed, containing the absolute path of the aiken binary
+     * Its modification time records when the version was last used
+     */
+    private static final String INSTALLED_MARKER = ".installed";
+
+    private final ShellCommandExecutor shellExecutor;
+
+    private final Map<String, ReentrantLock> versionLocks = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> leases = new ConcurrentHashMap<>();
+
+    @Value("${verification.build-timeout-seconds:300}")
+    private long buildTimeoutSeconds;
+
+    @Value("${verification.temp-dir:/tmp/plutus-scan-builds}")
+    private String tempDirBase;
+
+    @Value("${verification.toolchain.max-installed:8}")
+    private int maxInstalled;
+
+    @Value("${verification.toolchain.prewarm:}")
+    private List<String> prewarmVersions;
+
+    /**
+     * A leased toolchain; the version cannot be evicted while the lease is open
+     */
+    public class Toolchain implements AutoCloseable {
+
+        private final String version;
+        private final String aikenCommand;
+
+        private Toolchain(String version, String aikenCommand) {
+            this.version = version;
+            this.aikenCommand = aikenCommand;
+        }
+
+        /**
+         * Command to invoke aiken: an absolute path for installed versions, "aiken" for the default
+         */
+        public String getAikenCommand() {
+            return aikenCommand;
+        }
+
+        @Override
+        public void close() {
+            if (version != null) {
+                leases.get(version).decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Install the configured pre-warm versions in the background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        if (prewarmVersions == null || prewarmVersions.isEmpty()) {
+            return;
+        }
+
+        Thread.ofVirtual().name("aiken-toolchain-prewarm").start(() -> {
+            for (String version : prewarmVersions) {
+                try (Toolchain ignored = acquire(version.trim())) {
+                    log.info("Pre-warmed Aiken toolchain {}", version);
+                } catch (IOException e) {
+                    log.warn("Failed to pre-warm Aiken toolchain {}: {}", version, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Lease the toolchain for a compiler version, installing it first if needed
+     *
+     * @param version Aiken version (e.g. "v1.1.3"), null or empty for the default aiken on PATH
+     * @return Leased toolchain, to be closed once the build has finished
+     * @throws IOException If the version is invalid or the installation fails
+     */
+    public Toolchain acquire(String version) throws IOException {
+        if (version == null || version.isEmpty()) {
+            return new Toolchain(null, "aiken");
+        }
+
+        if (!VERSION_PATTERN.matcher(version).matches()) {
+            throw new IOException("Invalid Aiken version: " + version);
+        }
+
+        ReentrantLock lock = versionLocks.computeIfAbsent(version, v -> new ReentrantLock());
+        String aikenBinary;
+
+        lock.lock();
+        try {
+            Path versionDir = toolchainsRoot().resolve(version);
+            Path marker = versionDir.resolve(INSTALLED_MARKER);
+
+            if (Files.exists(marker)) {
+                aikenBinary = Files.readString(marker).trim();
+                Files.setLastModifiedTime(marker, FileTime.fromMillis(System.currentTimeMillis()));
+            } else {
+                aikenBinary = install(version, versionDir);
+                Files.writeString(marker, aikenBinary);
+            }
+
+            leases.computeIfAbsent(version, v -> new AtomicInteger()).incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+
+        evictLeastRecentlyUsed();
+        return new Toolchain(version, aikenBinary);
+    }
+
+    private String install(String version, Path versionDir) throws IOException {
+        log.info("Installing Aiken toolchain {} into {}", version, versionDir);
+
+        // Start from a clean directory in case a previous install was interrupted
+        FileUtils.deleteDirectory(versionDir.toFile());
+        Files.createDirectories(versionDir);
+
+        shellExecutor.execute(
+            String.format("aikup install %s", version),
+            versionDir,
+            buildTimeoutSeconds,
+            Map.of("HOME", versionDir.toString()),
+            null);
+
+        Path aikenBinary = findAikenBinary(versionDir)
+            .orElseThrow(() -> new IOException("aiken binary not found after installing " + version));
+
+        log.info("Installed Aiken toolchain {} at {}", version, aikenBinary);
+        return aikenBinary.toAbsolutePath().toString();
+    }
+
+    private Optional<Path> findAikenBinary(Path versionDir) throws IOException {
+        try (Stream<Path> files = Files.walk(versionDir)) {
+            return files
+                .filter(path -> path.getFileName().toString().equals("aiken"))
+                .filter(Files::isRegularFile)
+                .filter(Files::isExecutable)
+                .findFirst();
+        }
+    }
+
+    /**
+     * Remove the least recently used versions not currently leased or pre-warmed
+     * until at most max-installed versions remain
+     */
+    private void evictLeastRecentlyUsed() {
+        Path root = toolchainsRoot();
+        List<Path> installed;
+        try (Stream<Path> dirs = Files.list(root)) {
+            installed = dirs
+                .filter(dir -> Files.exists(dir.resolve(INSTALLED_MARKER)))
+                .sorted(Comparator.comparing(this::lastUsed))
+                .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list installed Aiken toolchains in {}", root, e);
+            return;
+        }
+
+        int excess = installed.size() - maxInstalled;
+        for (Path dir : installed) {
+            if (excess <= 0) {
+                break;
+            }
+
+            String version = dir.getFileName().toString();
+            if (prewarmVersions != null && prewarmVersions.contains(version)) {
+                continue;
+            }
+
+            ReentrantLock lock = versionLocks.computeIfAbsent(version, v -> new ReentrantLock());
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                AtomicInteger leaseCount = leases.get(version);
+                if (leaseCount != null && leaseCount.get() > 0) {
+                    continue;
+                }
+                log.info("Evicting least recently used Aiken toolchain {}", version);
+                FileUtils.deleteDirectory(dir.toFile());
+                excess--;
+            } catch (IOException e) {
+                log.warn("Failed to evict Aiken toolchain {}", version, e);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private FileTime lastUsed(Path versionDir) {
+        try {
+            return Files.getLastModifiedTime(versionDir.resolve(INSTALLED_MARKER));
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Path toolchainsRoot() {
+        return Paths.get(tempDirBase, "toolchains", "aiken").toAbsolutePath().normalize();
+    }
+}
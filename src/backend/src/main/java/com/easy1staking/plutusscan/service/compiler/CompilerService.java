@@ -3,6 +3,10 @@ package com.easy1staking.plutusscan.service.compiler;
 import com.easy1staking.plutusscan.exception.CompilationException;
 import com.easy1staking.plutusscan.model.CompilerType;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
 /**
  * Interface for compiler services that compile smart contracts from VCS repositories
  * Supports GitHub, GitLab, Codeberg, self-hosted Git, and future decentralized storage
@@ -10,19 +14,62 @@ import com.easy1staking.plutusscan.model.CompilerType;
 public interface CompilerService {
 
     /**
-     * Compile a smart contract project and return the plutus.json content
+     * Reads the plutus.json produced by a build
+     * Called while the build workspace still exists, the file is deleted once it returns
+     */
+    @FunctionalInterface
+    interface OutputHandler<T> {
+        T handle(Path plutusJson) throws IOException;
+    }
+
+    /**
+     * Compile a smart contract project and hand the resulting plutus.json file to the handler
+     * The output is never loaded into memory by the compiler, so the handler can stream it
      *
      * @param sourceUrl VCS source URL with protocol (e.g., https://github.com/org/repo, https://gitlab.com/group/project)
      * @param commitHash Git commit hash (SHA-1 or SHA-256)
      * @param compilerVersion Compiler version (e.g., "v1.1.3" for Aiken)
      * @param sourcePath Path within repository (null or empty for root)
-     * @return plutus.json content as a JSON string
-     * @throws CompilationException If compilation fails
+     * @param outputHandler Reads the plutus.json file
+     * @return Result of the handler
+     * @throws CompilationException If compilation fails or the handler fails to read the output
      */
-    String compile(String sourceUrl, String commitHash,
-                   String compilerVersion, String sourcePath)
+    <T> T compile(String sourceUrl, String commitHash,
+                  String compilerVersion, String sourcePath, OutputHandler<T> outputHandler)
             throws CompilationException;
 
+    /**
+     * Resolve a content-addressed key for the compiler input of a build
+     * Builds with the same key produce the same plutus.json, whatever repository or commit they come from
+     *
+     * @param sourceUrl VCS source URL with protocol
+     * @param commitHash Git commit hash (SHA-1 or SHA-256)
+     * @param compilerVersion Compiler version
+     * @param sourcePath Path within repository (null or empty for root)
+     * @return Input key, or empty if the input cannot be identified reliably
+     * @throws CompilationException If the sources cannot be read
+     */
+    default Optional<String> resolveInputKey(String sourceUrl, String commitHash,
+                                             String compilerVersion, String sourcePath)
+            throws CompilationException {
+        return Optional.empty();
+    }
+
+    /**
+     * Check whether the compiler input of a project is identical in two commits of the same repository
+     *
+     * @param sourceUrl VCS source URL with protocol
+     * @param fromCommit Previously built commit
+     * @param toCommit Commit to build
+     * @param sourcePath Path within repository (null or empty for root)
+     * @return true if a build of toCommit would produce the same plutus.json as fromCommit
+     * @throws CompilationException If the sources cannot be compared
+     */
+    default boolean hasSameInput(String sourceUrl, String fromCommit, String toCommit, String sourcePath)
+            throws CompilationException {
+        return false;
+    }
+
     /**
      * Get the compiler type this service handles
      */
@@ -0,0 +1,306 @@
+package com.easy1staking.plutusscan.service.compiler;
+
+import com.easy1staking.plutusscan.service.shell.ShellCommandExecutor;
+import com.easy1staking.plutusscan.util.SourceUrlParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent store of bare git mirrors, one per source repository
+ * Commits are fetched into the mirror once and work trees are materialized from it,
+ * so repeated builds of the same repository only download the objects they are missing
+ *
+ * With verification.git.partial-clone enabled, mirrors are fetched blob-less and work trees
+ * can be restricted to a sparse cone; missing blobs are then fetched lazily on checkout
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GitMirrorStore {
+
+    private final ShellCommandExecutor shellExecutor;
+
+    private final Map<Path, ReentrantLock> mirrorLocks = new ConcurrentHashMap<>();
+
+    @Value("${verification.build-timeout-seconds:300}")
+    private long buildTimeoutSeconds;
+
+    @Value("${verification.temp-dir:/tmp/plutus-scan-builds}")
+    private String tempDirBase;
+
+    @Value("${verification.git.partial-clone:false}")
+    private boolean partialClone;
+
+    /**
+     * Materialize a full work tree for the given commit
+     *
+     * @see #checkout(SourceUrlParser.ParsedSourceUrl, String, Path, String)
+     */
+    public Path checkout(SourceUrlParser.ParsedSourceUrl source, String commitHash, Path workTree) throws IOException {
+        return checkout(source, commitHash, workTree, null);
+    }
+
+    /**
+     * Materialize a work tree for the given commit
+     * The commit is fetched into the repository mirror if it is not already present
+     *
+     * @param source Parsed source URL identifying the repository
+     * @param commitHash Commit to check out
+     * @param workTree Target directory for the work tree (must not exist yet)
+     * @param sparsePath Path within the repository to restrict the checkout to (null or empty for
+     *                   a full checkout); only honoured when partial clone is enabled
+     * @return The work tree directory
+     * @throws IOException If fetching or checking out fails
+     */
+    public Path checkout(SourceUrlParser.ParsedSourceUrl source, String commitHash,
+                         Path workTree, String sparsePath) throws IOException {
+        boolean sparse = isSparse(sparsePath);
+
+        Path mirrorDir = resolveMirrorDir(source);
+        ReentrantLock lock = mirrorLocks.computeIfAbsent(mirrorDir, dir -> new ReentrantLock());
+
+        lock.lock();
+        try {
+            ensureMirror(source, mirrorDir);
+            ensureCommit(source, mirrorDir, commitHash);
+
+            // Drop metadata of work trees whose build directories were already deleted
+            shellExecutor.execute("git worktree prune", mirrorDir, buildTimeoutSeconds);
+
+            log.info("Materializing {} @ {} from mirror {}{}", source.getCloneUrl(), commitHash, mirrorDir,
+                sparse ? " (sparse: " + sparsePath + ")" : "");
+            shellExecutor.execute(
+                String.format("git worktree add --detach%s %s %s", partialClone ? " --no-checkout" : "",
+                    shellQuote(workTree.toString()), shellQuote(commitHash)),
+                mirrorDir,
+                buildTimeoutSeconds);
+
+            // Sparse patterns are written through the shared mirror config, so keep this under the lock
+            if (sparse) {
+                shellExecutor.execute(
+                    String.format("git sparse-checkout set %s", shellQuote(sparsePath.replaceAll("^/+|/+$", ""))),
+                    workTree,
+                    buildTimeoutSeconds);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (partialClone) {
+            // Populate the work tree, lazily fetching only the blobs inside the sparse cone
+            shellExecutor.execute("git reset --quiet --hard", workTree, buildTimeoutSeconds);
+        }
+
+        return workTree;
+    }
+
+    /**
+     * List the tree entries of the given top-level names within a directory of a commit
+     * Reads trees only, so it works on blob-less mirrors without fetching any file contents
+     *
+     * @param source Parsed source URL identifying the repository
+     * @param commitHash Commit to read
+     * @param treePath Directory within the repository (null or empty for the root)
+     * @param names Entry names to list, missing ones are omitted from the output
+     * @return git ls-tree output: one "mode type object-id\tname" line per existing entry
+     * @throws IOException If the commit cannot be fetched or the directory does not exist
+     */
+    public String listTree(SourceUrlParser.ParsedSourceUrl source, String commitHash,
+                           String treePath, List<String> names) throws IOException {
+        Path mirrorDir = resolveMirrorDir(source);
+        ReentrantLock lock = mirrorLocks.computeIfAbsent(mirrorDir, dir -> new ReentrantLock());
+
+        lock.lock();
+        try {
+            ensureMirror(source, mirrorDir);
+            ensureCommit(source, mirrorDir, commitHash);
+        } finally {
+            lock.unlock();
+        }
+
+        String path = treePath == null ? "" : treePath.replaceAll("^/+|/+$", "");
+        String quotedNames = names.stream().map(GitMirrorStore::shellQuote).collect(Collectors.joining(" "));
+        return shellExecutor.execute(
+            String.format("git ls-tree %s -- %s", shellQuote(commitHash + ":" + path), quotedNames),
+            mirrorDir,
+            buildTimeoutSeconds).getStdout();
+    }
+
+    /**
+     * Check whether any of the given paths differ between two commits
+     * Compares tree and blob ids only, so it works on blob-less mirrors without fetching any file contents
+     *
+     * @param source Parsed source URL identifying the repository
+     * @param fromCommit Base commit
+     * @param toCommit Commit to compare with the base
+     * @param paths Paths relative to the repository root
+     * @return true if at least one of the paths changed
+     * @throws IOException If a commit cannot be fetched or the comparison fails
+     */
+    public boolean hasChanges(SourceUrlParser.ParsedSourceUrl source, String fromCommit,
+                              String toCommit, List<String> paths) throws IOException {
+        Path mirrorDir = resolveMirrorDir(source);
+        ReentrantLock lock = mirrorLocks.computeIfAbsent(mirrorDir, dir -> new ReentrantLock());
+
+        lock.lock();
+        try {
+            ensureMirror(source, mirrorDir);
+            ensureCommit(source, mirrorDir, fromCommit);
+            ensureCommit(source, mirrorDir, toCommit);
+        } finally {
+            lock.unlock();
+        }
+
+        String quotedPaths = paths.stream().map(GitMirrorStore::shellQuote).collect(Collectors.joining(" "));
+        // diff-tree exits with 1 when there are differences, which the executor would report as a failure
+        String exitCode = shellExecutor.execute(
+            String.format("git diff-tree --quiet %s %s -- %s; echo $?",
+                shellQuote(fromCommit), shellQuote(toCommit), quotedPaths),
+            mirrorDir,
+            buildTimeoutSeconds).getStdout().trim();
+
+        return switch (exitCode) {
+            case "0" -> false;
+            case "1" -> true;
+            default -> throw new IOException(String.format(
+                "Failed to compare %s and %s in %s (exit code %s)", fromCommit, toCommit, source.getCloneUrl(), exitCode));
+        };
+    }
+
+    /**
+     * Expand a sparse work tree to a full checkout of its commit
+     * Used as a fallback when the build needs files outside the sparse cone
+     *
+     * @param workTree Work tree previously created by {@link #checkout}
+     * @throws IOException If the checkout fails
+     */
+    public void expandToFullCheckout(Path workTree) throws IOException {
+        log.info("Expanding sparse work tree to full checkout: {}", workTree);
+        shellExecutor.execute("git sparse-checkout disable", workTree, buildTimeoutSeconds);
+    }
+
+    /**
+     * Check whether a checkout for the given path would be sparse
+     */
+    public boolean isSparse(String sparsePath) {
+        return partialClone && sparsePath != null && !sparsePath.replaceAll("^/+|/+$", "").isEmpty();
+    }
+
+    /**
+     * Resolve the mirror directory for a repository: {temp-dir}/mirrors/{host}/{orgOrGroup}/{repo}.git
+     */
+    Path resolveMirrorDir(SourceUrlParser.ParsedSourceUrl source) throws IOException {
+        Path mirrorsRoot = Paths.get(tempDirBase, "mirrors").toAbsolutePath().normalize();
+        Path mirrorDir = mirrorsRoot
+            .resolve(source.getHost().toLowerCase())
+            .resolve(source.getOrgOrGroup())
+            .resolve(source.getRepo() + ".git")
+            .normalize();
+
+        if (!mirrorDir.startsWith(mirrorsRoot)) {
+            throw new IOException("Refusing to create mirror outside of mirror root: " + mirrorDir);
+        }
+        return mirrorDir;
+    }
+
+    /**
+     * Quote an argument for sh, paths come from on-chain metadata
+     */
+    private static String shellQuote(String argument) {
+        return "'" + argument.replace("'", "'\\''") + "'";
+    }
+
+    /**
+     * Create the mirror if it does not exist yet
+     * The mirror is initialised in a staging directory and moved into place once its origin is set,
+     * so a crash or timeout half-way never leaves a mirror that cannot fetch. Mirrors left without an
+     * origin by earlier versions are recreated.
+     */
+    private void ensureMirror(SourceUrlParser.ParsedSourceUrl source, Path mirrorDir) throws IOException {
+        if (hasOrigin(mirrorDir)) {
+            return;
+        }
+
+        if (Files.exists(mirrorDir)) {
+            log.warn("Mirror {} has no origin, recreating it", mirrorDir);
+            FileUtils.deleteDirectory(mirrorDir.toFile());
+        }
+
+        log.info("Creating mirror for {} in {}", source.getCloneUrl(), mirrorDir);
+        Path parent = Files.createDirectories(mirrorDir.getParent());
+        Path staging = Files.createTempDirectory(parent, mirrorDir.getFileName() + ".tmp-");
+        try {
+            shellExecutor.execute("git init --quiet --bare", staging, buildTimeoutSeconds);
+            shellExecutor.execute(
+                String.format("git remote add origin %s", shellQuote(source.getCloneUrl())),
+                staging,
+                buildTimeoutSeconds);
+            Files.move(staging, mirrorDir, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            FileUtils.deleteQuietly(staging.toFile());
+        }
+    }
+
+    private boolean hasOrigin(Path mirrorDir) throws IOException {
+        Path config = mirrorDir.resolve("config");
+        return Files.exists(mirrorDir.resolve("HEAD"))
+            && Files.exists(config)
+            && Files.readString(config).contains("[remote \"origin\"]");
+    }
+
+    private void ensureCommit(SourceUrlParser.ParsedSourceUrl source, Path mirrorDir, String commitHash) throws IOException {
+        if (hasCommit(mirrorDir, commitHash)) {
+            log.info("Commit {} already present in mirror of {}", commitHash, source.getCloneUrl());
+            return;
+        }
+
+        log.info("Fetching {} @ {} into mirror", source.getCloneUrl(), commitHash);
+        // Blob-less fetch: commits and trees only, blobs are fetched on demand at checkout
+        String filter = partialClone ? "--filter=blob:none " : "";
+        try {
+            // Fetch just the requested commit (supported by GitHub, GitLab and most modern servers)
+            shellExecutor.execute(
+                String.format("git fetch --quiet %sorigin %s", filter, shellQuote(commitHash)),
+                mirrorDir,
+                buildTimeoutSeconds);
+        } catch (IOException e) {
+            // Server does not allow fetching unadvertised commits, fall back to fetching all branches and tags
+            log.info("Fetch by commit not supported by {}, fetching all refs", source.getCloneUrl());
+            shellExecutor.execute(
+                String.format("git fetch --quiet %sorigin '+refs/heads/*:refs/heads/*' '+refs/tags/*:refs/tags/*'", filter),
+                mirrorDir,
+                buildTimeoutSeconds);
+        }
+
+        if (!hasCommit(mirrorDir, commitHash)) {
+            throw new IOException(String.format(
+                "Commit %s not found in %s", commitHash, source.getCloneUrl()));
+        }
+    }
+
+    private boolean hasCommit(Path mirrorDir, String commitHash) {
+        try {
+            shellExecutor.execute(
+                String.format("git cat-file -e %s", shellQuote(commitHash + "^{commit}")),
+                mirrorDir,
+                buildTimeoutSeconds);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -4,11 +4,11 @@ import com.easy1staking.plutusscan.domain.enums.PlutusVersion;
 import com.easy1staking.plutusscan.dto.ParameterSchema;
 import com.easy1staking.plutusscan.dto.ParsedValidator;
 import com.easy1staking.plutusscan.exception.PlutusJsonParseException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,17 +20,17 @@ import java.util.List;
 @Slf4j
 public class AikenV1_0_Parser implements PlutusJsonParser {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PlutusJsonStreamReader reader = new PlutusJsonStreamReader(new ObjectMapper());
 
     @Override
-    public List<ParsedValidator> parse(String plutusJsonContent) throws PlutusJsonParseException {
+    public List<ParsedValidator> parse(Reader plutusJson) throws PlutusJsonParseException {
         try {
-            JsonNode root = objectMapper.readTree(plutusJsonContent);
+            var blueprint = reader.read(plutusJson);
 
-            // Extract plutus version from preamble (default to V2 for alpha versions)
-            String plutusVersionStr = root.path("preamble")
-                .path("plutusVersion")
-                .asText("v2");
+            // Extract plutus version from preamble (default to v2 for alpha versions)
+            String plutusVersionStr = blueprint.plutusVersion() != null
+                ? blueprint.plutusVersion()
+                : "v2";
             PlutusVersion plutusVersion = PlutusVersion.fromString(plutusVersionStr);
 
             log.debug("Detected Plutus version: {}", plutusVersion);
@@ -38,16 +38,10 @@ public class AikenV1_0_Parser implements PlutusJsonParser {
             // Group validators by hash (same compiled code)
             java.util.Map<String, ParsedValidator> groupedByHash = new java.util.HashMap<>();
 
-            JsonNode validators = root.path("validators");
-
-            if (!validators.isArray()) {
-                throw new PlutusJsonParseException("validators field is not an array");
-            }
-
-            for (JsonNode validator : validators) {
-                String title = validator.path("title").asText();
-                String hash = validator.path("hash").asText();
-                String compiledCode = validator.path("compiledCode").asText();
+            for (var validator : blueprint.validators()) {
+                String title = validator.title();
+                String hash = validator.hash();
+                String compiledCode = validator.compiledCode();
 
                 if (title.isEmpty() || hash.isEmpty() || compiledCode.isEmpty()) {
                     log.warn("Skipping validator with missing fields: title={}, hash={}, compiledCode present={}",
@@ -66,18 +60,8 @@ public class AikenV1_0_Parser implements PlutusJsonParser {
                 String purpose = parts[1];
                 String moduleName = validatorName; // Use validator name as module name for v1.0.x
 
-                // Parse parameters (if present)
-                List<ParameterSchema> parameters = new ArrayList<>();
-                JsonNode parametersNode = validator.path("parameters");
-                if (parametersNode.isArray() && parametersNode.size() > 0) {
-                    for (JsonNode param : parametersNode) {
-                        ParameterSchema schema = ParameterSchema.builder()
-                            .title(param.path("title").asText(null))
-                            .schema(objectMapper.convertValue(param.path("schema"), Object.class))
-                            .build();
-                        parameters.add(schema);
-                    }
-                }
+                // Parameters (if present)
+                List<ParameterSchema> parameters = validator.parameters();
 
                 // Group by hash
                 if (!groupedByHash.containsKey(hash)) {
@@ -113,6 +97,11 @@ public class AikenV1_0_Parser implements PlutusJsonParser {
         }
     }
 
+    @Override
+    public String getVersion() {
+        return "aiken-v1.0/1";
+    }
+
     @Override
     public boolean supports(String version) {
         if (version == null || version.isEmpty()) {
@@ -0,0 +1,180 @@
+package com.easy1staking.plutusscan.service.plutusjson;
+
+import com.easy1staking.plutusscan.domain.enums.PlutusVersion;
+import com.easy1staking.plutusscan.dto.ParameterSchema;
+import com.easy1staking.plutusscan.dto.ParsedValidator;
+import com.easy1staking.plutusscan.util.Compression;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of parsed validators, deflate compressed
+ *
+ * Stores the parser output so cached builds can be reused without reading plutus.json again.
+ * Fields are written as length-prefixed UTF-8 in a fixed order; only parameter schemas, small
+ * free-form subtrees, are embedded as JSON.
+ */
+public class ParsedValidatorCodec {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+
+    public ParsedValidatorCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Encode validators
+     *
+     * @return Compressed encoding
+     */
+    public byte[] encode(List<ParsedValidator> validators) {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(validators.size());
+            for (ParsedValidator validator : validators) {
+                writeString(out, validator.getScriptName());
+                writeString(out, validator.getModuleName());
+                writeString(out, validator.getValidatorName());
+                writeStrings(out, validator.getPurposes());
+                writeString(out, validator.getRawHash());
+                writeString(out, validator.getCompiledCode());
+                writeString(out, validator.getPlutusVersion() == null ? null : validator.getPlutusVersion().name());
+                writeParameters(out, validator.getRequiredParameters());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Compression.deflate(bytes.toByteArray());
+    }
+
+    /**
+     * Decode validators produced by {@link #encode(List)}
+     *
+     * @throws UncheckedIOException If the data is corrupt or was written in another format
+     */
+    public List<ParsedValidator> decode(byte[] encoded) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(Compression.inflate(encoded)))) {
+            int format = in.readInt();
+            if (format != FORMAT_VERSION) {
+                throw new IOException("Unsupported validator encoding format: " + format);
+            }
+
+            int count = in.readInt();
+            List<ParsedValidator> validators = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String scriptName = readString(in);
+                String moduleName = readString(in);
+                String validatorName = readString(in);
+                List<String> purposes = readStrings(in);
+                String rawHash = readString(in);
+                String compiledCode = readString(in);
+                String plutusVersion = readString(in);
+
+                validators.add(ParsedValidator.builder()
+                    .scriptName(scriptName)
+                    .moduleName(moduleName)
+                    .validatorName(validatorName)
+                    .purposes(purposes)
+                    .rawHash(rawHash)
+                    .compiledCode(compiledCode)
+                    .plutusVersion(plutusVersion == null ? null : PlutusVersion.valueOf(plutusVersion))
+                    .requiredParameters(readParameters(in))
+                    .build());
+            }
+            return validators;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new UncheckedIOException(new IOException("Invalid validator encoding", e));
+        }
+    }
+
+    private void writeParameters(DataOutputStream out, List<ParameterSchema> parameters) throws IOException {
+        if (parameters == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(parameters.size());
+        for (ParameterSchema parameter : parameters) {
+            writeString(out, parameter.getTitle());
+            writeString(out, parameter.getSchema() == null ? null : objectMapper.writeValueAsString(parameter.getSchema()));
+        }
+    }
+
+    private List<ParameterSchema> readParameters(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        List<ParameterSchema> parameters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = readString(in);
+            String schema = readString(in);
+            parameters.add(ParameterSchema.builder()
+                .title(title)
+                .schema(schema == null ? null : objectMapper.readValue(schema, Object.class))
+                .build());
+        }
+        return parameters;
+    }
+
+    private void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    /**
+     * Length-prefixed UTF-8, -1 for null (DataOutput.writeUTF is limited to 64 KB, too small for
+     * compiled code)
+     */
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Truncated validator encoding");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
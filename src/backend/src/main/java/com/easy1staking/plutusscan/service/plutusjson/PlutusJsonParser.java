@@ -3,6 +3,11 @@ package com.easy1staking.plutusscan.service.plutusjson;
 import com.easy1staking.plutusscan.dto.ParsedValidator;
 import com.easy1staking.plutusscan.exception.PlutusJsonParseException;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -18,7 +23,40 @@ public interface PlutusJsonParser {
      * @return List of parsed validators
      * @throws PlutusJsonParseException If parsing fails
      */
-    List<ParsedValidator> parse(String plutusJsonContent) throws PlutusJsonParseException;
+    default List<ParsedValidator> parse(String plutusJsonContent) throws PlutusJsonParseException {
+        return parse(new StringReader(plutusJsonContent));
+    }
+
+    /**
+     * Parse UTF-8 encoded plutus.json from a stream (e.g. straight from the build output file)
+     * The stream is read incrementally and not closed
+     *
+     * @param plutusJson plutus.json content
+     * @return List of parsed validators
+     * @throws PlutusJsonParseException If parsing fails
+     */
+    default List<ParsedValidator> parse(InputStream plutusJson) throws PlutusJsonParseException {
+        return parse(new InputStreamReader(plutusJson, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse plutus.json from a character stream and extract validators
+     * The stream is read incrementally and not closed
+     *
+     * @param plutusJson plutus.json content
+     * @return List of parsed validators
+     * @throws PlutusJsonParseException If parsing fails
+     */
+    List<ParsedValidator> parse(Reader plutusJson) throws PlutusJsonParseException;
+
+    /**
+     * Identifies the parser and the shape of its output
+     * Stored with cached parse results, which are reused only by a parser of the same version;
+     * change it whenever the produced validators change for the same input
+     *
+     * @return Parser version, e.g. "aiken-v1.1/1"
+     */
+    String getVersion();
 
     /**
      * Check if this parser supports the given Aiken version
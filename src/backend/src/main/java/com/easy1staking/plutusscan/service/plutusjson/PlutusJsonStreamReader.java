@@ -0,0 +1,167 @@
+package com.easy1staking.plutusscan.service.plutusjson;
+
+import com.easy1staking.plutusscan.dto.ParameterSchema;
+import com.easy1staking.plutusscan.exception.PlutusJsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for plutus.json (CIP-57 blueprint) files
+ *
+ * Pulls only the preamble's plutusVersion and each validator's title, hash, compiledCode and
+ * parameter schemas; everything else (the definitions section, datum and redeemer schemas, ...)
+ * is skipped token by token without being materialized. Parameter schemas are kept as written,
+ * $ref pointers included, so definitions are never needed.
+ */
+public class PlutusJsonStreamReader {
+
+    /**
+     * A validator entry as found in plutus.json
+     */
+    public record BlueprintValidator(String title, String hash, String compiledCode,
+                                     List<ParameterSchema> parameters) {
+    }
+
+    /**
+     * The parts of a blueprint needed for verification
+     *
+     * @param plutusVersion preamble.plutusVersion, null if absent
+     */
+    public record Blueprint(String plutusVersion, List<BlueprintValidator> validators) {
+    }
+
+    private final ObjectMapper objectMapper;
+
+    public PlutusJsonStreamReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Read a blueprint from a character stream; the stream is not closed
+     *
+     * Character input is used on purpose: Jackson's byte based parser allocates several times
+     * the size of large string values (compiledCode) while decoding them
+     *
+     * @throws IOException If the content is not valid JSON
+     * @throws PlutusJsonParseException If the content is not a blueprint
+     */
+    public Blueprint read(Reader in) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new PlutusJsonParseException("plutus.json is not a JSON object");
+            }
+
+            String plutusVersion = null;
+            List<BlueprintValidator> validators = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "preamble" -> plutusVersion = readPreamble(parser);
+                    case "validators" -> validators = readValidators(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (validators == null) {
+                throw new PlutusJsonParseException("validators field is not an array");
+            }
+            return new Blueprint(plutusVersion, validators);
+        }
+    }
+
+    private String readPreamble(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        String plutusVersion = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("plutusVersion")) {
+                plutusVersion = parser.getValueAsString();
+            }
+            parser.skipChildren();
+        }
+        return plutusVersion;
+    }
+
+    private List<BlueprintValidator> readValidators(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new PlutusJsonParseException("validators field is not an array");
+        }
+
+        List<BlueprintValidator> validators = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            String title = "";
+            String hash = "";
+            String compiledCode = "";
+            List<ParameterSchema> parameters = new ArrayList<>();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "title" -> title = parser.getValueAsString("");
+                    case "hash" -> hash = parser.getValueAsString("");
+                    case "compiledCode" -> compiledCode = parser.getValueAsString("");
+                    case "parameters" -> parameters = readParameters(parser);
+                    default -> { }
+                }
+                parser.skipChildren();
+            }
+
+            validators.add(new BlueprintValidator(title, hash, compiledCode, parameters));
+        }
+        return validators;
+    }
+
+    private List<ParameterSchema> readParameters(JsonParser parser) throws IOException {
+        List<ParameterSchema> parameters = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            return parameters;
+        }
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            String title = null;
+            Object schema = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "title" -> title = parser.getValueAsString();
+                    // Small subtree, materialized as plain maps and lists
+                    case "schema" -> schema = objectMapper.readValue(parser, Object.class);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            parameters.add(ParameterSchema.builder()
+                .title(title)
+                .schema(schema)
+                .build());
+        }
+        return parameters;
+    }
+}
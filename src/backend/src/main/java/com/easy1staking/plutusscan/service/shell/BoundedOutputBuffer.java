@@ -0,0 +1,73 @@
+package com.easy1staking.plutusscan.service.shell;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Line buffer for process output with a fixed character budget
+ * Keeps the first lines (head) and a ring of the most recent lines (tail), dropping the middle,
+ * so the command line echo and the final error messages both survive very chatty builds
+ */
+public class BoundedOutputBuffer {
+
+    private final int headLimit;
+    private final int tailLimit;
+
+    private final StringBuilder head = new StringBuilder();
+    private final Deque<String> tail = new ArrayDeque<>();
+    private int tailChars;
+    private long droppedLines;
+    private boolean headFull;
+
+    /**
+     * @param maxChars Maximum number of characters retained, split evenly between head and tail
+     */
+    public BoundedOutputBuffer(int maxChars) {
+        this.headLimit = maxChars / 2;
+        this.tailLimit = maxChars - headLimit;
+    }
+
+    /**
+     * Append a line (without its terminator)
+     */
+    public synchronized void appendLine(String line) {
+        if (!headFull && head.length() + line.length() + 1 <= headLimit) {
+            head.append(line).append('\n');
+            return;
+        }
+        headFull = true;
+
+        // Lines larger than the whole tail budget are cut down to its last characters
+        String entry = line.length() + 1 > tailLimit
+            ? line.substring(Math.max(0, line.length() + 1 - tailLimit))
+            : line;
+
+        tail.addLast(entry);
+        tailChars += entry.length() + 1;
+
+        while (tailChars > tailLimit && !tail.isEmpty()) {
+            tailChars -= tail.removeFirst().length() + 1;
+            droppedLines++;
+        }
+    }
+
+    /**
+     * Number of lines dropped from the middle of the output
+     */
+    public synchronized long getDroppedLines() {
+        return droppedLines;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder(head.length() + tailChars + 64);
+        sb.append(head);
+        if (droppedLines > 0) {
+            sb.append("... [").append(droppedLines).append(" lines truncated] ...\n");
+        }
+        for (String line : tail) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -1,22 +1,84 @@
 package com.easy1staking.plutusscan.service.shell;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Service for executing shell commands with proper error handling and timeout support
+ * stdout and stderr are drained concurrently on virtual threads into bounded buffers,
+ * so a chatty process can neither block on a full pipe nor exhaust the heap
+ *
+ * Commands run as "sh -c", so on timeout, interrupt or shutdown the whole descendant tree
+ * (git, aikup, aiken, ...) is terminated, not just the shell. A periodic reaper kills
+ * orphaned processes left in the build directories by earlier crashes.
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class ShellCommandExecutor {
 
+    static final String KILLED_PROCESSES_METRIC = "verification.shell.processes.killed";
+
+    /**
+     * How long to wait for the output drainers after the process has exited
+     * (a leaked grandchild may keep the pipes open)
+     */
+    private static final long DRAIN_JOIN_MILLIS = 5_000;
+
+    /**
+     * Grace period between SIGTERM and SIGKILL when terminating a process tree
+     */
+    private static final long TERMINATE_GRACE_MILLIS = 2_000;
+
+    /**
+     * Minimum age of a process, relative to the reaper's snapshot of running commands, before it
+     * can be reaped (a command or child that starts around the snapshot is never mistaken for a leak)
+     */
+    private static final Duration ORPHAN_MIN_AGE = Duration.ofSeconds(30);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<Process> activeProcesses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Guards starting and registering a process, so the reaper never sees a started but unregistered command
+     */
+    private final Object processRegistryLock = new Object();
+
+    @Value("${verification.shell.max-captured-chars:65536}")
+    private int maxCapturedChars = 65536;
+
+    @Value("${verification.temp-dir:/tmp/plutus-scan-builds}")
+    private String tempDirBase = "/tmp/plutus-scan-builds";
+
+    @Value("${verification.workspace.tmpfs-dir:/dev/shm/plutus-scan-builds}")
+    private String tmpfsDir = "/dev/shm/plutus-scan-builds";
+
     /**
      * Execute a shell command in the specified working directory
      *
@@ -27,6 +89,37 @@ public class ShellCommandExecutor {
      * @throws IOException If command execution fails or times out
      */
     public ProcessResult execute(String command, Path workingDir, long timeoutSeconds) throws IOException {
+        return execute(command, workingDir, timeoutSeconds, null);
+    }
+
+    /**
+     * Execute a shell command in the specified working directory, streaming its output
+     *
+     * @param command Command to execute
+     * @param workingDir Working directory for the command
+     * @param timeoutSeconds Maximum execution time in seconds, measured from process start
+     * @param lineListener Optional callback invoked with every stdout and stderr line as it is produced
+     * @return ProcessResult containing exit code and the captured (possibly truncated) stdout and stderr
+     * @throws IOException If command execution fails or times out
+     */
+    public ProcessResult execute(String command, Path workingDir, long timeoutSeconds,
+                                 Consumer<String> lineListener) throws IOException {
+        return execute(command, workingDir, timeoutSeconds, Map.of(), lineListener);
+    }
+
+    /**
+     * Execute a shell command with additional environment variables
+     *
+     * @param command Command to execute
+     * @param workingDir Working directory for the command
+     * @param timeoutSeconds Maximum execution time in seconds, measured from process start
+     * @param environment Environment variables to set (or override) for the command
+     * @param lineListener Optional callback invoked with every stdout and stderr line as it is produced
+     * @return ProcessResult containing exit code and the captured (possibly truncated) stdout and stderr
+     * @throws IOException If command execution fails or times out
+     */
+    public ProcessResult execute(String command, Path workingDir, long timeoutSeconds,
+                                 Map<String, String> environment, Consumer<String> lineListener) throws IOException {
         log.debug("Executing command: {} in directory: {}", command, workingDir);
 
         ProcessBuilder pb = new ProcessBuilder("sh", "-c", command);
@@ -37,58 +130,207 @@ public class ShellCommandExecutor {
         String path = env.get("PATH");
         String aikenBinPath = System.getProperty("user.home") + "/.aiken/bin";
         env.put("PATH", aikenBinPath + ":" + path);
+        env.putAll(environment);
 
         log.debug("PATH environment: {}", env.get("PATH"));
 
-        Process process = pb.start();
-
-        StringBuilder stdout = new StringBuilder();
-        StringBuilder stderr = new StringBuilder();
-
-        // Read stdout
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                stdout.append(line).append("\n");
-            }
+        Process process;
+        synchronized (processRegistryLock) {
+            process = pb.start();
+            activeProcesses.add(process);
         }
-
-        // Read stderr
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getErrorStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                stderr.append(line).append("\n");
-            }
+        try {
+            return awaitProcess(process, command, timeoutSeconds, lineListener);
+        } finally {
+            activeProcesses.remove(process);
         }
+    }
+
+    private ProcessResult awaitProcess(Process process, String command, long timeoutSeconds,
+                                       Consumer<String> lineListener) throws IOException {
+        BoundedOutputBuffer stdout = new BoundedOutputBuffer(maxCapturedChars);
+        BoundedOutputBuffer stderr = new BoundedOutputBuffer(maxCapturedChars);
+
+        Thread stdoutDrainer = startDrainer("shell-stdout-" + process.pid(), process.getInputStream(), stdout, lineListener);
+        Thread stderrDrainer = startDrainer("shell-stderr-" + process.pid(), process.getErrorStream(), stderr, lineListener);
 
         boolean finished;
         try {
             finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
         } catch (InterruptedException e) {
-            process.destroyForcibly();
+            destroyProcessTree(process.toHandle(), "interrupt");
             Thread.currentThread().interrupt();
             throw new IOException("Command execution interrupted", e);
         }
 
         if (!finished) {
-            process.destroyForcibly();
+            destroyProcessTree(process.toHandle(), "timeout");
+            joinDrainers(stdoutDrainer, stderrDrainer);
             throw new IOException(String.format(
-                "Command timed out after %d seconds: %s", timeoutSeconds, command));
+                "Command timed out after %d seconds: %s\nStderr: %s", timeoutSeconds, command, stderr));
         }
 
+        joinDrainers(stdoutDrainer, stderrDrainer);
+
         int exitCode = process.exitValue();
 
         log.debug("Command completed with exit code: {}", exitCode);
 
+        if (stdout.getDroppedLines() > 0 || stderr.getDroppedLines() > 0) {
+            log.debug("Output truncated: {} stdout lines, {} stderr lines dropped",
+                stdout.getDroppedLines(), stderr.getDroppedLines());
+        }
+
         if (exitCode != 0) {
-            log.warn("Command failed with exit code {}. Stderr: {}", exitCode, stderr.toString());
+            log.warn("Command failed with exit code {}. Stderr: {}", exitCode, stderr);
             throw new IOException(String.format(
                 "Command failed with exit code %d: %s\nStderr: %s",
-                exitCode, command, stderr.toString()));
+                exitCode, command, stderr));
         }
 
         return new ProcessResult(exitCode, stdout.toString(), stderr.toString());
     }
+
+    private Thread startDrainer(String name, InputStream stream, BoundedOutputBuffer buffer,
+                                Consumer<String> lineListener) {
+        return Thread.ofVirtual().name(name).start(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    buffer.appendLine(line);
+                    if (lineListener != null) {
+                        try {
+                            lineListener.accept(line);
+                        } catch (RuntimeException e) {
+                            log.debug("Output line listener failed", e);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Stream closed because the process was destroyed
+                log.debug("Output stream {} closed: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Terminate all commands still running when the application shuts down
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (Process process : activeProcesses) {
+            log.info("Terminating running command (pid {}) on shutdown", process.pid());
+            destroyProcessTree(process.toHandle(), "shutdown");
+        }
+    }
+
+    /**
+     * Kill orphaned processes left behind in the build directories, e.g. by a crash of a previous
+     * run or by commands that backgrounded children. A process is considered leaked when it has been
+     * re-parented to init, its working directory is under verification.temp-dir (or the tmpfs workspace root),
+     * it does not belong to a command currently being executed and it was started well before the snapshot
+     * of running commands was taken.
+     */
+    @Scheduled(fixedDelayString = "${verification.shell.reaper-interval-ms:60000}",
+               initialDelayString = "${verification.shell.reaper-interval-ms:60000}")
+    public void reapOrphans() {
+        Path procRoot = Paths.get("/proc");
+        if (!Files.isDirectory(procRoot)) {
+            return;
+        }
+
+        Path buildRoot = Paths.get(tempDirBase).toAbsolutePath().normalize();
+        Path tmpfsRoot = Paths.get(tmpfsDir).toAbsolutePath().normalize();
+        long selfPid = ProcessHandle.current().pid();
+
+        Set<Long> activePids = new HashSet<>();
+        Instant startedBefore;
+        synchronized (processRegistryLock) {
+            startedBefore = Instant.now().minus(ORPHAN_MIN_AGE);
+            for (Process process : activeProcesses) {
+                activePids.add(process.pid());
+                process.descendants().forEach(handle -> activePids.add(handle.pid()));
+            }
+        }
+
+        List<ProcessHandle> orphans = ProcessHandle.allProcesses()
+            .filter(handle -> handle.pid() != selfPid && !activePids.contains(handle.pid()))
+            .filter(handle -> handle.parent()
+                .map(parent -> parent.pid() == 1)
+                .orElse(true))
+            .filter(handle -> handle.info().startInstant()
+                .map(start -> start.isBefore(startedBefore))
+                .orElse(false))
+            .filter(handle -> workingDirectory(procRoot, handle)
+                .map(cwd -> cwd.startsWith(buildRoot) || cwd.startsWith(tmpfsRoot))
+                .orElse(false))
+            .toList();
+
+        for (ProcessHandle orphan : orphans) {
+            log.warn("Reaping leaked build process pid={} cmd={}",
+                orphan.pid(), orphan.info().commandLine().orElse("?"));
+            destroyProcessTree(orphan, "reaper");
+        }
+    }
+
+    /**
+     * Terminate a process and all of its descendants: SIGTERM first, SIGKILL after a grace period
+     *
+     * @return Number of processes that were alive and got terminated
+     */
+    int destroyProcessTree(ProcessHandle root, String reason) {
+        // Snapshot descendants before the root dies and they get re-parented
+        List<ProcessHandle> tree = new ArrayList<>(root.descendants().toList());
+        tree.add(root);
+
+        List<ProcessHandle> alive = tree.stream().filter(ProcessHandle::isAlive).toList();
+        alive.forEach(ProcessHandle::destroy);
+
+        long deadline = System.currentTimeMillis() + TERMINATE_GRACE_MILLIS;
+        for (ProcessHandle handle : alive) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining > 0) {
+                try {
+                    handle.onExit().get(remaining, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    // Still running (or interrupted), escalate below
+                }
+            }
+            if (handle.isAlive()) {
+                // Also catch children spawned after the snapshot
+                handle.descendants().forEach(ProcessHandle::destroyForcibly);
+                handle.destroyForcibly();
+            }
+        }
+
+        if (!alive.isEmpty()) {
+            log.info("Terminated {} process(es) of tree rooted at pid {} ({})", alive.size(), root.pid(), reason);
+            meterRegistry.counter(KILLED_PROCESSES_METRIC, "reason", reason).increment(alive.size());
+        }
+        return alive.size();
+    }
+
+    private Optional<Path> workingDirectory(Path procRoot, ProcessHandle handle) {
+        try {
+            return Optional.of(Files.readSymbolicLink(procRoot.resolve(Long.toString(handle.pid())).resolve("cwd")));
+        } catch (Exception e) {
+            // Process already gone or owned by another user
+            return Optional.empty();
+        }
+    }
+
+    private void joinDrainers(Thread... drainers) {
+        long deadline = System.currentTimeMillis() + DRAIN_JOIN_MILLIS;
+        try {
+            for (Thread drainer : drainers) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !drainer.join(Duration.ofMillis(remaining))) {
+                    log.warn("Output drainer {} did not finish, returning partial output", drainer.getName());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
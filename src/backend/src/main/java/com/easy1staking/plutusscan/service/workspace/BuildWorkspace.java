@@ -0,0 +1,45 @@
+package com.easy1staking.plutusscan.service.workspace;
+
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Scratch directory for a single build
+ * Closing the workspace hands the directory to the background janitor; the caller does not wait
+ * for the deletion
+ */
+public class BuildWorkspace implements AutoCloseable {
+
+    private final Path directory;
+    private final String backend;
+    private final Consumer<BuildWorkspace> releaser;
+    private boolean closed;
+
+    BuildWorkspace(Path directory, String backend, Consumer<BuildWorkspace> releaser) {
+        this.directory = directory;
+        this.backend = backend;
+        this.releaser = releaser;
+    }
+
+    /**
+     * Root directory of the workspace
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Backend the workspace lives on ("disk" or "tmpfs")
+     */
+    public String getBackend() {
+        return backend;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            releaser.accept(this);
+        }
+    }
+}
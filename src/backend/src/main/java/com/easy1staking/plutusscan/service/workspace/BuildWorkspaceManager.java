@@ -0,0 +1,248 @@
+package com.easy1staking.plutusscan.service.workspace;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Creates and cleans up build workspaces
+ *
+ * Workspaces are created on disk under verification.temp-dir, or with the "tmpfs" backend under a
+ * RAM-backed directory (e.g. /dev/shm) as long as it stays below its size cap, falling back to disk
+ * otherwise. Released workspaces are deleted by a background janitor. Workspaces leaked by a crash
+ * are removed by a startup sweep, and a periodic watchdog publishes the workspace size and removes
+ * leaked workspaces (oldest first) once the disk budget is exceeded.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BuildWorkspaceManager {
+
+    static final String BACKEND_DISK = "disk";
+    static final String BACKEND_TMPFS = "tmpfs";
+
+    private static final String WORKSPACE_PREFIX = "aiken-build-";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<Path> activeWorkspaces = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> workspaceBytes = Map.of(
+        BACKEND_DISK, new AtomicLong(),
+        BACKEND_TMPFS, new AtomicLong());
+    private final AtomicInteger pendingDeletions = new AtomicInteger();
+
+    private final ExecutorService janitor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "workspace-janitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${verification.temp-dir:/tmp/plutus-scan-builds}")
+    private String tempDirBase;
+
+    @Value("${verification.workspace.backend:disk}")
+    private String backend;
+
+    @Value("${verification.workspace.tmpfs-dir:/dev/shm/plutus-scan-builds}")
+    private String tmpfsDir;
+
+    @Value("${verification.workspace.tmpfs-max-mb:2048}")
+    private long tmpfsMaxMb;
+
+    @Value("${verification.workspace.max-disk-mb:10240}")
+    private long maxDiskMb;
+
+    @PostConstruct
+    public void init() {
+        for (var entry : workspaceBytes.entrySet()) {
+            Gauge.builder("verification.workspace.bytes", entry.getValue(), AtomicLong::get)
+                .description("Size of the build workspaces")
+                .tag("backend", entry.getKey())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        }
+        Gauge.builder("verification.workspace.pending.deletions", pendingDeletions, AtomicInteger::get)
+            .description("Released workspaces waiting to be deleted")
+            .register(meterRegistry);
+
+        // Nothing is building yet, so every workspace left on disk was leaked by a previous run
+        sweep(diskRoot());
+        if (useTmpfs()) {
+            sweep(tmpfsRoot());
+        }
+
+        log.info("INIT - build workspace backend: {}", useTmpfs() ? BACKEND_TMPFS + " (" + tmpfsRoot() + ")" : BACKEND_DISK);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        janitor.shutdown();
+        janitor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Create a new, empty workspace
+     *
+     * @return The workspace, to be closed once the build has finished
+     * @throws IOException If the directory cannot be created
+     */
+    public BuildWorkspace create() throws IOException {
+        String selectedBackend = BACKEND_DISK;
+        Path root = diskRoot();
+
+        if (useTmpfs()) {
+            // Measured on every build, walking a RAM-backed tree is cheap and the cap must be exact
+            long tmpfsBytes = measure(tmpfsRoot());
+            workspaceBytes.get(BACKEND_TMPFS).set(tmpfsBytes);
+            if (tmpfsBytes < tmpfsMaxMb * 1024 * 1024) {
+                selectedBackend = BACKEND_TMPFS;
+                root = tmpfsRoot();
+            } else {
+                log.info("tmpfs workspace root is full, using disk");
+            }
+        }
+
+        Files.createDirectories(root);
+        Path directory = Files.createTempDirectory(root, WORKSPACE_PREFIX);
+        activeWorkspaces.add(directory);
+        log.info("Created build workspace: {} ({})", directory, selectedBackend);
+
+        return new BuildWorkspace(directory, selectedBackend, this::release);
+    }
+
+    /**
+     * Publish the workspace sizes and, over the disk budget, remove leaked workspaces
+     */
+    @Scheduled(fixedDelayString = "${verification.workspace.watchdog-interval-ms:60000}")
+    public void watchdog() {
+        long diskBytes = measure(diskRoot());
+        workspaceBytes.get(BACKEND_DISK).set(diskBytes);
+        if (useTmpfs()) {
+            workspaceBytes.get(BACKEND_TMPFS).set(measure(tmpfsRoot()));
+        }
+
+        if (diskBytes <= maxDiskMb * 1024 * 1024) {
+            return;
+        }
+
+        log.warn("Build workspaces use {} MB, over the budget of {} MB", diskBytes / (1024 * 1024), maxDiskMb);
+        for (Path leaked : listLeaked(diskRoot())) {
+            log.warn("Removing leaked build workspace {}", leaked);
+            scheduleDeletion(leaked);
+        }
+    }
+
+    private void release(BuildWorkspace workspace) {
+        activeWorkspaces.remove(workspace.getDirectory());
+        scheduleDeletion(workspace.getDirectory());
+    }
+
+    private void scheduleDeletion(Path directory) {
+        pendingDeletions.incrementAndGet();
+        janitor.execute(() -> {
+            try {
+                FileUtils.deleteDirectory(directory.toFile());
+                log.debug("Cleaned up build workspace: {}", directory);
+            } catch (IOException e) {
+                log.warn("Failed to clean up build workspace: {}", directory, e);
+            } finally {
+                pendingDeletions.decrementAndGet();
+            }
+        });
+    }
+
+    private void sweep(Path root) {
+        for (Path leaked : listLeaked(root)) {
+            log.info("Removing build workspace left by a previous run: {}", leaked);
+            scheduleDeletion(leaked);
+        }
+    }
+
+    /**
+     * Workspaces under a root that do not belong to a running build, oldest first
+     */
+    private List<Path> listLeaked(Path root) {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> dirs = Files.list(root)) {
+            return dirs
+                .filter(dir -> dir.getFileName().toString().startsWith(WORKSPACE_PREFIX))
+                .filter(dir -> !activeWorkspaces.contains(dir))
+                .sorted(Comparator.comparing(this::lastModified))
+                .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list build workspaces in {}", root, e);
+            return List.of();
+        }
+    }
+
+    private long measure(Path root) {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        try (Stream<Path> dirs = Files.list(root)) {
+            return dirs
+                .filter(dir -> dir.getFileName().toString().startsWith(WORKSPACE_PREFIX))
+                .mapToLong(this::sizeOf)
+                .sum();
+        } catch (IOException e) {
+            log.warn("Failed to measure build workspaces in {}", root, e);
+            return 0;
+        }
+    }
+
+    private long sizeOf(Path dir) {
+        try {
+            return FileUtils.sizeOfDirectory(dir.toFile());
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            // Deleted while measuring
+            return 0;
+        }
+    }
+
+    private FileTime lastModified(Path dir) {
+        try {
+            return Files.getLastModifiedTime(dir);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private boolean useTmpfs() {
+        return BACKEND_TMPFS.equalsIgnoreCase(backend);
+    }
+
+    private Path diskRoot() {
+        return Paths.get(tempDirBase).toAbsolutePath().normalize();
+    }
+
+    private Path tmpfsRoot() {
+        return Paths.get(tmpfsDir).toAbsolutePath().normalize();
+    }
+}
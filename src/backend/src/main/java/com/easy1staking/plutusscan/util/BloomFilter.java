@@ -0,0 +1,130 @@
+package com.easy1staking.plutusscan.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe Bloom filter of byte strings, with its bit array off-heap
+ *
+ * The bits live in a direct buffer, so a large filter adds nothing to the heap the GC scans. Bits
+ * are set with atomic OR, so concurrent insertions never lose each other's bits. Entries cannot be
+ * removed.
+ */
+public final class BloomFilter {
+
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final double falsePositiveRate;
+    private final AtomicLong insertions = new AtomicLong();
+
+    private BloomFilter(long bitCount, int hashCount, double falsePositiveRate) {
+        int words = Math.toIntExact((bitCount + 63) / 64);
+        // Atomic access to the words needs 8-byte alignment
+        this.bits = ByteBuffer.allocateDirect(words * 8 + 7).alignedSlice(8);
+        this.bitCount = (long) words * 64;
+        this.hashCount = hashCount;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Create a filter sized for the expected number of entries
+     *
+     * @param expectedInsertions Number of entries at which the false positive rate is reached
+     * @param falsePositiveRate  Target false positive rate, between 0 and 1 exclusive
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing: " + expectedInsertions + " entries at " + falsePositiveRate);
+        }
+        long bitCount = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bitCount, hashCount, falsePositiveRate);
+    }
+
+    /**
+     * Add an entry
+     *
+     * @return Whether the filter changed, false if the entry was (probably) already present
+     */
+    public boolean put(byte[] value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            long previous = (long) WORDS.getAndBitwiseOr(bits, (int) (bit >>> 6) * 8, mask);
+            changed |= (previous & mask) == 0;
+        }
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+        return changed;
+    }
+
+    /**
+     * Whether an entry may have been added: false means it certainly was not
+     */
+    public boolean mightContain(byte[] value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            long word = (long) WORDS.getAcquire(bits, (int) (bit >>> 6) * 8);
+            if ((word & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Target false positive rate the filter was sized for
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * False positive rate expected for the entries added so far
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions.get() / bitCount), hashCount);
+    }
+
+    /**
+     * Number of distinct entries added, approximate: entries colliding on all bits are not counted
+     */
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    /**
+     * Size of the bit array in bytes
+     */
+    public long getSizeBytes() {
+        return bitCount / 8;
+    }
+
+    /**
+     * 64-bit hash of a byte string: FNV-1a with a seed, finished with the MurmurHash3 mix
+     */
+    private static long hash(byte[] value, long seed) {
+        long h = seed ^ value.length;
+        for (byte b : value) {
+            h = (h ^ (b & 0xff)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,74 @@
+package com.easy1staking.plutusscan.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Deflate (zlib) compression of stored blobs
+ */
+public final class Compression {
+
+    private Compression() {
+    }
+
+    /**
+     * Compress data with deflate
+     *
+     * @param data Uncompressed data
+     * @return zlib stream
+     */
+    public static byte[] deflate(byte[] data) {
+        var out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+        try (var deflater = new DeflaterOutputStream(out)) {
+            deflater.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Compress a stream with deflate, without holding its uncompressed content in memory
+     *
+     * @param data Uncompressed data, read to the end but not closed
+     * @return zlib stream
+     * @throws IOException If reading the data fails
+     */
+    public static byte[] deflate(InputStream data) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var deflater = new DeflaterOutputStream(out)) {
+            data.transferTo(deflater);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Open a stream over data produced by {@link #deflate(byte[])}, decompressing it as it is read
+     *
+     * @param data zlib stream
+     * @return Uncompressed data stream
+     */
+    public static InputStream inflating(byte[] data) {
+        return new InflaterInputStream(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Decompress data produced by {@link #deflate(byte[])}
+     *
+     * @param data zlib stream
+     * @return Uncompressed data
+     * @throws UncheckedIOException If the data is not a valid zlib stream
+     */
+    public static byte[] inflate(byte[] data) {
+        try (var inflater = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return inflater.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
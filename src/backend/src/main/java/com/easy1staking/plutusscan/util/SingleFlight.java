@@ -0,0 +1,80 @@
+package com.easy1staking.plutusscan.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution
+ * The first caller runs the loader, callers arriving while it runs wait for and share its result
+ * (or its failure). Nothing is remembered once the call has completed.
+ *
+ * @param <K> Key type
+ * @param <V> Result type
+ */
+@Slf4j
+public class SingleFlight<K, V> {
+
+    /**
+     * Work to execute for a key
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws Exception;
+    }
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run the loader for a key, or join the call already in flight for that key
+     *
+     * @param key Key identifying the work
+     * @param loader Work to execute if no call for the key is in flight
+     * @return Result of the (possibly shared) call
+     * @throws Exception The exception thrown by the loader
+     */
+    public V execute(K key, Loader<V> loader) throws Exception {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+
+        if (existing != null) {
+            log.debug("Joining in-flight call for {}", key);
+            return await(existing);
+        }
+
+        try {
+            V value = loader.load();
+            own.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Number of keys currently being executed
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (CancellationException e) {
+            throw new IllegalStateException("In-flight call was cancelled", e);
+        }
+    }
+}
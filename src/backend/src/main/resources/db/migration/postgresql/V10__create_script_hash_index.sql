@@ -0,0 +1,40 @@
+-- Unified script hash lookup index
+-- Every raw and final hash of a script is indexed once, as its 28 raw bytes, so a lookup by hash is
+-- a single probe instead of "raw_hash = ? OR final_hash = ?" over two hex indexes. The hex columns
+-- on script are kept for responses and the script_code reference.
+
+CREATE TABLE script_hash_index (
+    hash BYTEA NOT NULL,
+    script_id BIGINT NOT NULL,
+    kind VARCHAR(5) NOT NULL,  -- Which script hash this is: RAW, FINAL or BOTH (unparameterized script)
+
+    CONSTRAINT pk_script_hash_index PRIMARY KEY (hash, script_id),
+
+    CONSTRAINT fk_script_hash_index_script
+        FOREIGN KEY (script_id)
+        REFERENCES script(id)
+        ON DELETE CASCADE,
+
+    CONSTRAINT chk_script_hash_index_kind CHECK (kind IN ('RAW', 'FINAL', 'BOTH'))
+);
+
+CREATE INDEX idx_script_hash_index_script_id ON script_hash_index(script_id);
+
+INSERT INTO script_hash_index (hash, script_id, kind)
+SELECT decode(raw_hash, 'hex'), id, CASE WHEN raw_hash = final_hash THEN 'BOTH' ELSE 'RAW' END
+FROM script
+WHERE raw_hash ~ '^([0-9a-fA-F]{2})+$';
+
+INSERT INTO script_hash_index (hash, script_id, kind)
+SELECT decode(final_hash, 'hex'), id, 'FINAL'
+FROM script
+WHERE final_hash IS NOT NULL AND final_hash <> raw_hash AND final_hash ~ '^([0-9a-fA-F]{2})+$'
+ON CONFLICT DO NOTHING;
+
+-- Superseded by script_hash_index
+DROP INDEX IF EXISTS idx_script_raw_hash;
+DROP INDEX IF EXISTS idx_script_final_hash;
+
+COMMENT ON TABLE script_hash_index IS 'Raw and final script hashes as bytes, for single-probe lookups by hash';
+COMMENT ON COLUMN script_hash_index.hash IS 'Script hash (28 bytes)';
+COMMENT ON COLUMN script_hash_index.kind IS 'RAW, FINAL or BOTH (raw hash equals final hash)';
@@ -0,0 +1,7 @@
+-- Trigram index for repository search
+-- Serves "lower(source_url) LIKE '%pattern%'" substring searches without a sequential scan
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_verification_request_source_url_trgm ON verification_request
+    USING GIN (LOWER(source_url) gin_trgm_ops);
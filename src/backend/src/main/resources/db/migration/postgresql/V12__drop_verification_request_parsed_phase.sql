@@ -0,0 +1,5 @@
+-- The PARSED phase is gone: parsed validators are stored with the build, so COMPILED covers it
+
+UPDATE verification_request SET phase = 'COMPILED' WHERE phase = 'PARSED';
+
+COMMENT ON COLUMN verification_request.phase IS 'Last completed phase: CLAIMED, COMPILED or PERSISTED';
@@ -0,0 +1,13 @@
+-- Notify listening backends of newly indexed script hashes, so every instance drops its cached lookups
+-- pg_notify is delivered when the inserting transaction commits, duplicates within it are folded
+CREATE OR REPLACE FUNCTION notify_script_hash() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('script_hash', encode(NEW.hash, 'hex'));
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_script_hash_index_notify
+    AFTER INSERT ON script_hash_index
+    FOR EACH ROW
+    EXECUTE FUNCTION notify_script_hash();
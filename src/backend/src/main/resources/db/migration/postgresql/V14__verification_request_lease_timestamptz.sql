@@ -0,0 +1,7 @@
+-- Store lease expiry as an absolute instant
+-- As TIMESTAMP, CURRENT_TIMESTAMP was converted through each session's TimeZone (set by pgjdbc from the
+-- node's JVM default), so nodes in different time zones disagreed on when a lease expires.
+-- Existing values are taken as UTC; leases are short-lived, so a wrong guess only shifts one expiry.
+
+ALTER TABLE verification_request
+    ALTER COLUMN lease_expires_at TYPE TIMESTAMPTZ USING lease_expires_at AT TIME ZONE 'UTC';
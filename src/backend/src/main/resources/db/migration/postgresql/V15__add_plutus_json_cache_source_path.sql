@@ -0,0 +1,33 @@
+-- Key the plutus.json cache by source path as well
+-- A monorepo verified under several source paths at the same commit produced one build per path, but
+-- they shared a single cache entry: whichever path was stored last was served for all of them.
+-- The source path is stored normalized ('' for the repository root), so it can be part of the constraint.
+
+ALTER TABLE plutus_json_cache ADD COLUMN source_path VARCHAR(1000);
+
+-- Existing entries keep their build only if a single source path was verified for their key
+UPDATE plutus_json_cache c
+SET source_path = v.source_path
+FROM (
+    SELECT compiler_type, source_url, commit_hash, compiler_version,
+           MIN(COALESCE(source_path, '')) AS source_path
+    FROM verification_request
+    GROUP BY compiler_type, source_url, commit_hash, compiler_version
+    HAVING COUNT(DISTINCT COALESCE(source_path, '')) = 1
+) v
+WHERE c.compiler_type = v.compiler_type
+  AND c.source_url = v.source_url
+  AND c.commit_hash = v.commit_hash
+  AND c.compiler_version = v.compiler_version;
+
+-- Ambiguous (or unreferenced) entries cannot be attributed to a path; they are rebuilt on demand
+DELETE FROM plutus_json_cache WHERE source_path IS NULL;
+
+ALTER TABLE plutus_json_cache ALTER COLUMN source_path SET DEFAULT '';
+ALTER TABLE plutus_json_cache ALTER COLUMN source_path SET NOT NULL;
+
+ALTER TABLE plutus_json_cache DROP CONSTRAINT uk_plutus_json_cache_key;
+ALTER TABLE plutus_json_cache ADD CONSTRAINT uk_plutus_json_cache_key
+    UNIQUE (compiler_type, source_url, commit_hash, compiler_version, source_path);
+
+COMMENT ON COLUMN plutus_json_cache.source_path IS 'Project directory within the repository ('''' for the root)';
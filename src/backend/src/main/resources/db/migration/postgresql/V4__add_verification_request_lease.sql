@@ -0,0 +1,18 @@
+-- Add work claiming leases to verification_request
+-- A node claims PENDING requests with FOR UPDATE SKIP LOCKED and holds them as PROCESSING
+-- until lease_expires_at; expired leases are returned to the queue
+
+ALTER TABLE verification_request ADD COLUMN lease_owner VARCHAR(255);
+ALTER TABLE verification_request ADD COLUMN lease_expires_at TIMESTAMP;
+
+-- Index for claiming the oldest pending requests
+CREATE INDEX idx_verification_request_pending ON verification_request(created_at)
+    WHERE status = 'PENDING';
+
+-- Index for the expired lease reaper
+CREATE INDEX idx_verification_request_lease_expires_at ON verification_request(lease_expires_at)
+    WHERE status = 'PROCESSING';
+
+-- Comments
+COMMENT ON COLUMN verification_request.lease_owner IS 'Node currently processing the request (set while PROCESSING)';
+COMMENT ON COLUMN verification_request.lease_expires_at IS 'Time after which a PROCESSING request is returned to PENDING';
@@ -0,0 +1,13 @@
+-- Notify listening backends of new verification requests
+-- pg_notify is delivered when the inserting transaction commits
+CREATE OR REPLACE FUNCTION notify_verification_request() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('verification_request', NEW.id::text);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_verification_request_notify
+    AFTER INSERT ON verification_request
+    FOR EACH ROW
+    EXECUTE FUNCTION notify_verification_request();
@@ -0,0 +1,6 @@
+-- Track the last completed processing phase of a verification request
+-- Phases are persisted in short transactions so that a retried request resumes where it stopped
+
+ALTER TABLE verification_request ADD COLUMN phase VARCHAR(50);
+
+COMMENT ON COLUMN verification_request.phase IS 'Last completed phase: CLAIMED, COMPILED, PARSED or PERSISTED';
@@ -0,0 +1,11 @@
+-- Content-addressed key for the plutus.json cache
+-- Hash of the compiler version and the git tree entries of the build inputs (aiken.toml, aiken.lock,
+-- validators, lib, env) under the source path; forks, mirrors and commits that do not touch the
+-- build inputs share it
+
+ALTER TABLE plutus_json_cache ADD COLUMN input_hash VARCHAR(64);
+
+CREATE INDEX idx_plutus_json_cache_input_hash ON plutus_json_cache(input_hash)
+    WHERE input_hash IS NOT NULL;
+
+COMMENT ON COLUMN plutus_json_cache.input_hash IS 'SHA-256 of compiler version and build input tree entries (null if unknown)';
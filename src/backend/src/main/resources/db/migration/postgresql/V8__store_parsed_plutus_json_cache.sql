@@ -0,0 +1,15 @@
+-- Cache the parser output next to the original plutus.json, both deflate compressed
+-- A cache hit no longer reads JSON: the stored validators are reused as long as the same parser
+-- version produced them, otherwise they are parsed again from the original plutus.json.
+-- Entries written before this migration keep their jsonb content and are parsed on use.
+
+ALTER TABLE plutus_json_cache ALTER COLUMN plutus_json_content DROP NOT NULL;
+
+ALTER TABLE plutus_json_cache ADD COLUMN plutus_json BYTEA;
+ALTER TABLE plutus_json_cache ADD COLUMN validators BYTEA;
+ALTER TABLE plutus_json_cache ADD COLUMN parser_version VARCHAR(50);
+
+COMMENT ON COLUMN plutus_json_cache.plutus_json_content IS 'Legacy uncompressed plutus.json (null for entries with plutus_json)';
+COMMENT ON COLUMN plutus_json_cache.plutus_json IS 'Original plutus.json bytes, deflate compressed';
+COMMENT ON COLUMN plutus_json_cache.validators IS 'Parsed validators, deflate compressed binary encoding';
+COMMENT ON COLUMN plutus_json_cache.parser_version IS 'Version of the parser that produced validators';
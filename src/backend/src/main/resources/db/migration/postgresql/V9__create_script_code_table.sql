@@ -0,0 +1,34 @@
+-- Content-addressed store of compiled script code
+-- Compiled code is stored once per script hash (raw_hash), as raw bytes, instead of as a hex TEXT
+-- column repeated on every script row sharing the hash (commits, forks, repeated registrations)
+
+CREATE TABLE script_code (
+    hash VARCHAR(64) PRIMARY KEY,
+
+    -- Compiled code bytes, encoded as given by compression
+    compression VARCHAR(10) NOT NULL,
+    code BYTEA NOT NULL,
+    code_size INTEGER NOT NULL,  -- Uncompressed size in bytes
+
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT chk_script_code_compression CHECK (compression IN ('NONE', 'DEFLATE'))
+);
+
+-- Existing code is moved uncompressed; it is already half the size of the hex text, and new
+-- rows are written deflate compressed by the application
+INSERT INTO script_code (hash, compression, code, code_size)
+SELECT DISTINCT ON (raw_hash) raw_hash, 'NONE', decode(compiled_code, 'hex'), length(compiled_code) / 2
+FROM script
+ORDER BY raw_hash, id;
+
+ALTER TABLE script DROP COLUMN compiled_code;
+
+ALTER TABLE script ADD CONSTRAINT fk_script_code
+    FOREIGN KEY (raw_hash) REFERENCES script_code(hash);
+
+COMMENT ON TABLE script_code IS 'Compiled script code, stored once per script hash';
+COMMENT ON COLUMN script_code.hash IS 'Unparameterized script hash (script.raw_hash)';
+COMMENT ON COLUMN script_code.compression IS 'Encoding of code: NONE or DEFLATE';
+COMMENT ON COLUMN script_code.code IS 'Compiled code (CBOR) bytes';
+COMMENT ON COLUMN script_code.code_size IS 'Uncompressed size of code in bytes';
@@ -0,0 +1,108 @@
+package com.easy1staking.plutusscan;
+
+import com.easy1staking.plutusscan.util.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    private static final int HASH_LENGTH = 28;
+
+    @Test
+    void testNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(200_000, 0.01);
+        List<byte[]> hashes = randomHashes(new Random(1), 200_000);
+
+        hashes.forEach(filter::put);
+
+        for (byte[] hash : hashes) {
+            assertTrue(filter.mightContain(hash));
+        }
+    }
+
+    @Test
+    void testFalsePositiveRateMatchesConfigured() {
+        double configured = 0.01;
+        BloomFilter filter = BloomFilter.create(100_000, configured);
+        Random random = new Random(2);
+        randomHashes(random, 100_000).forEach(filter::put);
+
+        // Random 28-byte hashes never collide with the ones added, so every hit is a false positive
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (byte[] hash : randomHashes(random, probes)) {
+            if (filter.mightContain(hash)) {
+                falsePositives++;
+            }
+        }
+
+        double observed = (double) falsePositives / probes;
+        assertTrue(observed < configured * 1.5, "Observed false positive rate " + observed);
+        assertEquals(configured, filter.getExpectedFalsePositiveRate(), configured * 0.2);
+    }
+
+    @Test
+    void testConcurrentPutAndMightContain() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        BloomFilter filter = BloomFilter.create((long) threads * perThread, 0.01);
+        List<List<byte[]>> batches = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            batches.add(randomHashes(new Random(10 + i), perThread));
+        }
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                List<byte[]> own = batches.get(i);
+                List<byte[]> other = batches.get((i + 1) % threads);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < own.size(); j++) {
+                        filter.put(own.get(j));
+                        // A put is visible as soon as it returns, whatever other threads set meanwhile
+                        assertTrue(filter.mightContain(own.get(j)));
+                        filter.mightContain(other.get(j));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        // Concurrent atomic ORs never lose a bit
+        for (List<byte[]> batch : batches) {
+            for (byte[] hash : batch) {
+                assertTrue(filter.mightContain(hash));
+            }
+        }
+        long total = (long) threads * perThread;
+        assertTrue(filter.getInsertions() <= total);
+        assertTrue(filter.getInsertions() > total * 0.99, "Insertions " + filter.getInsertions());
+    }
+
+    private static List<byte[]> randomHashes(Random random, int count) {
+        List<byte[]> hashes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] hash = new byte[HASH_LENGTH];
+            random.nextBytes(hash);
+            hashes.add(hash);
+        }
+        return hashes;
+    }
+}
@@ -1,11 +1,17 @@
 package com.easy1staking.plutusscan;
 
+import com.easy1staking.plutusscan.domain.enums.PlutusVersion;
 import com.easy1staking.plutusscan.dto.ParsedValidator;
 import com.easy1staking.plutusscan.service.plutusjson.AikenV1_0_Parser;
 import com.easy1staking.plutusscan.service.plutusjson.AikenV1_1_Parser;
+import com.easy1staking.plutusscan.service.plutusjson.ParsedValidatorCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -202,4 +208,80 @@ class PlutusJsonParserTest {
         assertTrue(validator.getPurposes().contains("else"));
         assertEquals("shared_hash", validator.getRawHash());
     }
+
+    @Test
+    void testAikenV1_1_ParserStreamsAndSkipsDefinitions() throws Exception {
+        AikenV1_1_Parser parser = new AikenV1_1_Parser();
+
+        // Parameters, datum/redeemer schemas and definitions around the fields the parser needs
+        String plutusJson = """
+            {
+              "preamble": {
+                "title": "test",
+                "compiler": { "name": "Aiken", "version": "v1.1.3" },
+                "plutusVersion": "v3"
+              },
+              "validators": [
+                {
+                  "title": "vault.vault.spend",
+                  "datum": { "title": "datum", "schema": { "$ref": "#/definitions/Datum" } },
+                  "redeemer": { "title": "redeemer", "schema": { "$ref": "#/definitions/Data" } },
+                  "parameters": [
+                    { "title": "owner", "schema": { "$ref": "#/definitions/ByteArray" } }
+                  ],
+                  "compiledCode": "test_code",
+                  "hash": "test_hash"
+                }
+              ],
+              "definitions": {
+                "ByteArray": { "dataType": "bytes" },
+                "Datum": { "anyOf": [ { "fields": [ { "$ref": "#/definitions/ByteArray" } ] } ] }
+              }
+            }
+            """;
+
+        List<ParsedValidator> validators = parser.parse(
+            new ByteArrayInputStream(plutusJson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, validators.size());
+        ParsedValidator validator = validators.get(0);
+        assertEquals("vault", validator.getScriptName());
+        assertEquals("test_code", validator.getCompiledCode());
+        assertEquals("test_hash", validator.getRawHash());
+        assertEquals(PlutusVersion.V3, validator.getPlutusVersion());
+        assertEquals(1, validator.getRequiredParameters().size());
+        assertEquals("owner", validator.getRequiredParameters().get(0).getTitle());
+        assertEquals(Map.of("$ref", "#/definitions/ByteArray"), validator.getRequiredParameters().get(0).getSchema());
+    }
+
+    @Test
+    void testParsedValidatorCodecRoundTrip() throws Exception {
+        AikenV1_1_Parser parser = new AikenV1_1_Parser();
+        ParsedValidatorCodec codec = new ParsedValidatorCodec(new ObjectMapper());
+
+        String plutusJson = """
+            {
+              "preamble": { "plutusVersion": "v2" },
+              "validators": [
+                {
+                  "title": "pool.pool.spend",
+                  "parameters": [ { "title": "settings", "schema": { "$ref": "#/definitions/Settings" } } ],
+                  "compiledCode": "59010f0100",
+                  "hash": "pool_hash"
+                },
+                { "title": "pool.pool.mint", "compiledCode": "59010f0100", "hash": "pool_hash" },
+                { "title": "oracle.oracle.spend", "compiledCode": "4e4d01", "hash": "oracle_hash" }
+              ]
+            }
+            """;
+
+        List<ParsedValidator> validators = parser.parse(plutusJson);
+        List<ParsedValidator> decoded = codec.decode(codec.encode(validators));
+
+        assertEquals(validators, decoded);
+        assertNull(decoded.stream()
+            .filter(validator -> validator.getRawHash().equals("oracle_hash"))
+            .findFirst().orElseThrow()
+            .getRequiredParameters());
+    }
 }
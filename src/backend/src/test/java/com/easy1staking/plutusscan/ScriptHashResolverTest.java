@@ -0,0 +1,95 @@
+package com.easy1staking.plutusscan;
+
+import com.bloxbean.cardano.client.address.AddressProvider;
+import com.bloxbean.cardano.client.address.Credential;
+import com.bloxbean.cardano.client.address.Pointer;
+import com.bloxbean.cardano.client.common.model.Network;
+import com.bloxbean.cardano.client.common.model.Networks;
+import com.easy1staking.plutusscan.service.AddressService;
+import com.easy1staking.plutusscan.service.ScriptHashResolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ScriptHashResolver must resolve exactly like the Address based AddressService
+ */
+class ScriptHashResolverTest {
+
+    private static final String PAYMENT_HASH = "a3b2c1" + "01".repeat(25);
+    private static final String STAKE_HASH = "f0e1d2" + "02".repeat(25);
+
+    private final AddressService addressService = new AddressService();
+
+    @Test
+    void testResolvesLikeAddressService() {
+        for (ScriptHashResolver resolver : List.of(new ScriptHashResolver(0), new ScriptHashResolver(100))) {
+            for (String input : inputs()) {
+                Optional<String> expected = addressService.normalizeToScriptHash(input);
+                assertEquals(expected, resolver.resolve(input), input);
+                // Served from the cache the second time
+                assertEquals(expected, resolver.resolve(input), input);
+            }
+        }
+    }
+
+    @Test
+    void testResolvesScriptCredentials() {
+        var resolver = new ScriptHashResolver(100);
+        Credential script = Credential.fromScript(PAYMENT_HASH);
+        Credential stakeScript = Credential.fromScript(STAKE_HASH);
+        Credential key = Credential.fromKey(STAKE_HASH);
+
+        assertEquals(Optional.of(PAYMENT_HASH),
+            resolver.resolve(AddressProvider.getEntAddress(script, Networks.mainnet()).toBech32()));
+        assertEquals(Optional.of(PAYMENT_HASH),
+            resolver.resolve(AddressProvider.getBaseAddress(script, stakeScript, Networks.mainnet()).toBech32()));
+        assertEquals(Optional.of(STAKE_HASH),
+            resolver.resolve(AddressProvider.getBaseAddress(key, stakeScript, Networks.mainnet()).toBech32()));
+        assertEquals(Optional.of(STAKE_HASH),
+            resolver.resolve(AddressProvider.getRewardAddress(stakeScript, Networks.testnet()).toBech32()));
+        assertEquals(Optional.of(PAYMENT_HASH), resolver.resolve(PAYMENT_HASH.toUpperCase()));
+        assertTrue(resolver.resolve(AddressProvider.getEntAddress(key, Networks.mainnet()).toBech32()).isEmpty());
+    }
+
+    private static List<String> inputs() {
+        List<String> inputs = new ArrayList<>();
+        Credential script = Credential.fromScript(PAYMENT_HASH);
+        Credential key = Credential.fromKey(PAYMENT_HASH);
+        Credential stakeScript = Credential.fromScript(STAKE_HASH);
+        Credential stakeKey = Credential.fromKey(STAKE_HASH);
+        Pointer pointer = new Pointer(2498243, 27, 3);
+
+        for (Network network : List.of(Networks.mainnet(), Networks.testnet())) {
+            for (Credential payment : List.of(script, key)) {
+                for (Credential stake : List.of(stakeScript, stakeKey)) {
+                    inputs.add(AddressProvider.getBaseAddress(payment, stake, network).toBech32());
+                }
+                inputs.add(AddressProvider.getPointerAddress(payment, pointer, network).toBech32());
+                inputs.add(AddressProvider.getEntAddress(payment, network).toBech32());
+            }
+            inputs.add(AddressProvider.getRewardAddress(stakeScript, network).toBech32());
+            inputs.add(AddressProvider.getRewardAddress(stakeKey, network).toBech32());
+        }
+
+        String address = AddressProvider.getEntAddress(script, Networks.mainnet()).toBech32();
+        inputs.add(PAYMENT_HASH);
+        inputs.add(PAYMENT_HASH.toUpperCase());
+        inputs.add(PAYMENT_HASH.substring(2));
+        inputs.add(PAYMENT_HASH.substring(2) + "zz");
+        inputs.add("");
+        // Altered checksum, truncated data, invalid characters
+        inputs.add(address.substring(0, address.length() - 1) + (address.endsWith("q") ? "p" : "q"));
+        inputs.add(address.substring(0, address.length() - 8) + address.substring(address.length() - 6));
+        inputs.add(address.replace('q', 'b'));
+        inputs.add("addr1");
+        inputs.add("not an address");
+        inputs.add("stake1" + "x".repeat(300));
+        return inputs;
+    }
+}
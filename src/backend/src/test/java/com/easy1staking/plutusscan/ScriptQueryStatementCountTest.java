@@ -0,0 +1,270 @@
+package com.easy1staking.plutusscan;
+
+import com.bloxbean.cardano.client.util.HexUtil;
+import com.easy1staking.plutusscan.domain.entity.ScriptCodeEntity;
+import com.easy1staking.plutusscan.domain.entity.ScriptEntity;
+import com.easy1staking.plutusscan.domain.entity.ScriptHashIndexEntity;
+import com.easy1staking.plutusscan.domain.entity.VerificationRequestEntity;
+import com.easy1staking.plutusscan.domain.enums.CodeCompression;
+import com.easy1staking.plutusscan.domain.enums.PlutusVersion;
+import com.easy1staking.plutusscan.domain.enums.ScriptHashKind;
+import com.easy1staking.plutusscan.domain.enums.VerificationStatus;
+import com.easy1staking.plutusscan.domain.repository.VerificationRequestRepository;
+import com.easy1staking.plutusscan.dto.ScriptSummary;
+import com.easy1staking.plutusscan.dto.response.ScriptListResponseDto;
+import com.easy1staking.plutusscan.dto.response.ScriptResponseDto;
+import com.easy1staking.plutusscan.model.CompilerType;
+import com.easy1staking.plutusscan.service.ScriptHashFilter;
+import com.easy1staking.plutusscan.service.ScriptLookupCache;
+import com.easy1staking.plutusscan.service.ScriptService;
+import com.easy1staking.plutusscan.service.ScriptsCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every script lookup must load in a fixed number of statements, however many scripts and
+ * verification requests match
+ */
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.datasource.url=jdbc:h2:mem:plutus_scan;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS JSON",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ScriptService.class, ScriptLookupCache.class, ScriptHashFilter.class, SimpleMeterRegistry.class})
+class ScriptQueryStatementCountTest {
+
+    private static final String SOURCE_URL = "https://github.com/org/repo";
+    private static final String COMMIT = "35f1a0d0000000000000000000000000000000000";
+    private static final String SHARED_HASH = "aa".repeat(28);
+    private static final String OTHER_HASH = "bb".repeat(28);
+    private static final String PARAMETERIZED_HASH = "cc".repeat(28);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ScriptService scriptService;
+
+    @Autowired
+    private ScriptLookupCache lookupCache;
+
+    @Autowired
+    private ScriptHashFilter hashFilter;
+
+    @Autowired
+    private VerificationRequestRepository verificationRequestRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        lookupCache.invalidateAll();
+
+        storeCode(SHARED_HASH);
+        storeCode(OTHER_HASH);
+
+        // The same contract verified from the repository and from a fork, plus a second commit path
+        var original = storeRequest("tx_original", SOURCE_URL, "validators");
+        storeScript(original, "vault", SHARED_HASH, SHARED_HASH);
+
+        var fork = storeRequest("tx_fork", "https://github.com/fork/repo", null);
+        storeScript(fork, "vault", SHARED_HASH, PARAMETERIZED_HASH);
+
+        var sameCommit = storeRequest("tx_same_commit", SOURCE_URL, "other");
+        storeScript(sameCommit, "vault", SHARED_HASH, SHARED_HASH);
+        storeScript(sameCommit, "oracle", OTHER_HASH, OTHER_HASH);
+
+        entityManager.flush();
+        entityManager.clear();
+        hashFilter.refresh();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void byHashGroupsMatchesByRequestInOneStatement() {
+        var response = ScriptListResponseDto.fromSummaries(scriptService.findByHash(SHARED_HASH.toUpperCase()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("tx_same_commit", response.getTxHash());
+        assertEquals(List.of("vault"), scriptNames(response));
+        assertEquals(List.of("tx_fork", "tx_original"),
+            response.getOtherRequests().stream().map(ScriptListResponseDto::getTxHash).toList());
+    }
+
+    @Test
+    void byParameterizedHashFindsOnlyThatScript() {
+        var response = ScriptListResponseDto.fromSummaries(scriptService.findByHash(PARAMETERIZED_HASH));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("tx_fork", response.getTxHash());
+        assertNull(response.getOtherRequests());
+    }
+
+    @Test
+    void byHashesLoadsAllHashesInOneStatement() {
+        String unknownHash = "dd".repeat(28);
+        var results = scriptService.findByHashes(List.of(SHARED_HASH.toUpperCase(), PARAMETERIZED_HASH, OTHER_HASH, unknownHash, "not-a-hash"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(Set.of(SHARED_HASH, PARAMETERIZED_HASH, OTHER_HASH, unknownHash), results.keySet());
+        assertEquals(List.of("tx_same_commit", "tx_fork", "tx_original"),
+            results.get(SHARED_HASH).stream().map(ScriptSummary::txHash).toList());
+        assertEquals(List.of("tx_fork"), results.get(PARAMETERIZED_HASH).stream().map(ScriptSummary::txHash).toList());
+        assertEquals(List.of("oracle"), results.get(OTHER_HASH).stream().map(ScriptSummary::scriptName).toList());
+        assertTrue(results.get(unknownHash).isEmpty());
+
+        scriptService.findByHashes(List.of(SHARED_HASH, OTHER_HASH));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void unknownHashIsAnsweredWithoutStatement() {
+        assertTrue(scriptService.findByHash("dd".repeat(28)).isEmpty());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void repeatedByHashLookupsAreCachedUntilScriptsAreCreated() {
+        // A false positive of the hash filter reaches the cache
+        String unknownHash = "ee".repeat(28);
+        hashFilter.add(HexUtil.decodeHexString(unknownHash));
+
+        assertTrue(scriptService.findByHash(unknownHash).isEmpty());
+        assertTrue(scriptService.findByHash(unknownHash.toUpperCase()).isEmpty());
+        assertEquals(3, scriptService.findByHash(SHARED_HASH).size());
+        assertEquals(3, scriptService.findByHash(SHARED_HASH).size());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        lookupCache.onScriptsCreated(new ScriptsCreatedEvent(Set.of(unknownHash)));
+        scriptService.findByHash(unknownHash);
+        scriptService.findByHash(SHARED_HASH);
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void bySourceLoadsInOneStatement() {
+        var response = ScriptListResponseDto.fromSummaries(scriptService.findBySourceUrlAndCommit(SOURCE_URL, COMMIT));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("tx_same_commit", response.getTxHash());
+        assertEquals(List.of("vault", "oracle"), scriptNames(response));
+        assertEquals(1, response.getOtherRequests().size());
+    }
+
+    @Test
+    void searchRanksNameMatchesFirstAndPagesInTwoStatements() {
+        storeRequest("tx_name_prefix", "https://github.com/repository-tools/misc", null);
+        storeRequest("tx_substring", "https://github.com/prepo-labs/misc", null);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        var firstPage = scriptService.searchByUrlPattern("Repo", null, 2);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(List.of("tx_same_commit", "tx_fork"), txHashes(firstPage.results()));
+        firstPage.results().forEach(result -> assertNull(result.getOtherRequests()));
+
+        var secondPage = scriptService.searchByUrlPattern("Repo", firstPage.nextCursor(), 2);
+        assertEquals(List.of("tx_original", "tx_name_prefix"), txHashes(secondPage.results()));
+
+        var lastPage = scriptService.searchByUrlPattern("Repo", secondPage.nextCursor(), 2);
+        assertEquals(List.of("tx_substring"), txHashes(lastPage.results()));
+        assertNull(lastPage.nextCursor());
+    }
+
+    @Test
+    void searchRejectsShortPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> scriptService.searchByUrlPattern("https://re", null, null));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void verificationByTxLoadsScriptsInOneStatement() {
+        var requests = verificationRequestRepository.findByTxHash("tx_same_commit");
+
+        assertEquals(2, requests.get(0).getScripts().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private List<String> txHashes(List<ScriptListResponseDto> results) {
+        return results.stream().map(ScriptListResponseDto::getTxHash).toList();
+    }
+
+    private List<String> scriptNames(ScriptListResponseDto response) {
+        return response.getScripts().stream().map(ScriptResponseDto::getScriptName).toList();
+    }
+
+    private void storeCode(String hash) {
+        entityManager.persist(ScriptCodeEntity.builder()
+            .hash(hash)
+            .compression(CodeCompression.NONE)
+            .code(new byte[]{0x01})
+            .codeSize(1)
+            .build());
+    }
+
+    private VerificationRequestEntity storeRequest(String txHash, String sourceUrl, String sourcePath) {
+        var request = VerificationRequestEntity.builder()
+            .txHash(txHash)
+            .slot(1L)
+            .sourceUrl(sourceUrl)
+            .commitHash(COMMIT)
+            .sourcePath(sourcePath)
+            .compilerType(CompilerType.AIKEN)
+            .compilerVersion("v1.1.3")
+            .status(VerificationStatus.VERIFIED)
+            .build();
+        entityManager.persist(request);
+        return request;
+    }
+
+    private void storeScript(VerificationRequestEntity request, String name, String rawHash, String finalHash) {
+        var script = new ScriptEntity();
+        script.setVerificationRequest(request);
+        script.setScriptName(name);
+        script.setModuleName(name);
+        script.setValidatorName(name);
+        script.setPurpose("spend");
+        script.setRawHash(rawHash);
+        script.setFinalHash(finalHash);
+        script.setPlutusVersion(PlutusVersion.V3);
+        entityManager.persist(script);
+
+        if (rawHash.equals(finalHash)) {
+            entityManager.persist(new ScriptHashIndexEntity(HexUtil.decodeHexString(rawHash), script.getId(), ScriptHashKind.BOTH));
+        } else {
+            entityManager.persist(new ScriptHashIndexEntity(HexUtil.decodeHexString(rawHash), script.getId(), ScriptHashKind.RAW));
+            entityManager.persist(new ScriptHashIndexEntity(HexUtil.decodeHexString(finalHash), script.getId(), ScriptHashKind.FINAL));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.easy1staking.plutusscan;
+
+import com.easy1staking.plutusscan.service.shell.BoundedOutputBuffer;
+import com.easy1staking.plutusscan.service.shell.ProcessResult;
+import com.easy1staking.plutusscan.service.shell.ShellCommandExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShellCommandExecutorTest {
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void testBoundedOutputBufferKeepsHeadAndTail() {
+        BoundedOutputBuffer buffer = new BoundedOutputBuffer(40);
+
+        for (int i = 0; i < 100; i++) {
+            buffer.appendLine("line-" + i);
+        }
+
+        String output = buffer.toString();
+        assertTrue(output.startsWith("line-0\nline-1\n"));
+        assertTrue(output.endsWith("line-98\nline-99\n"));
+        assertTrue(output.contains("lines truncated"));
+        assertTrue(buffer.getDroppedLines() > 0);
+    }
+
+    @Test
+    void testBoundedOutputBufferKeepsShortOutputIntact() {
+        BoundedOutputBuffer buffer = new BoundedOutputBuffer(1024);
+        buffer.appendLine("hello");
+        buffer.appendLine("world");
+
+        assertEquals("hello\nworld\n", buffer.toString());
+        assertEquals(0, buffer.getDroppedLines());
+    }
+
+    @Test
+    void testLargeStderrDoesNotBlock() throws Exception {
+        ShellCommandExecutor executor = new ShellCommandExecutor(new SimpleMeterRegistry());
+
+        // ~2 MB on stderr before anything on stdout would deadlock a sequential reader
+        ProcessResult result = executor.execute(
+            "i=0; while [ $i -lt 40000 ]; do echo \"stderr line $i padding padding padding\" >&2; i=$((i+1)); done; echo done",
+            workDir,
+            30);
+
+        assertTrue(result.isSuccess());
+        assertEquals("done\n", result.getStdout());
+        assertTrue(result.getStderr().length() <= 65536 + 64);
+        assertTrue(result.getStderr().endsWith("stderr line 39999 padding padding padding\n"));
+    }
+
+    @Test
+    void testTimeoutIsEnforcedWhileOutputIsStreaming() {
+        ShellCommandExecutor executor = new ShellCommandExecutor(new SimpleMeterRegistry());
+
+        long start = System.currentTimeMillis();
+        IOException e = assertThrows(IOException.class, () -> executor.execute(
+            "while true; do echo spam >&2; sleep 0.01; done",
+            workDir,
+            1));
+
+        assertTrue(e.getMessage().contains("timed out"));
+        assertTrue(System.currentTimeMillis() - start < 10_000);
+    }
+
+    @Test
+    void testTimeoutKillsWholeProcessTree() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ShellCommandExecutor executor = new ShellCommandExecutor(meterRegistry);
+
+        assertThrows(IOException.class, () -> executor.execute(
+            "sleep 60 & echo $! > child.pid; wait",
+            workDir,
+            1));
+
+        long childPid = Long.parseLong(Files.readString(workDir.resolve("child.pid")).trim());
+        assertFalse(ProcessHandle.of(childPid).map(ProcessHandle::isAlive).orElse(false));
+        assertTrue(meterRegistry.counter("verification.shell.processes.killed", "reason", "timeout").count() >= 2);
+    }
+
+    @Test
+    void testLineListenerReceivesOutput() throws Exception {
+        ShellCommandExecutor executor = new ShellCommandExecutor(new SimpleMeterRegistry());
+        List<String> lines = new CopyOnWriteArrayList<>();
+
+        executor.execute("echo one; echo two >&2; echo three", workDir, 10, lines::add);
+
+        assertTrue(lines.containsAll(List.of("one", "two", "three")));
+    }
+}
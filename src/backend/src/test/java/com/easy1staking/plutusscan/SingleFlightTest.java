@@ -0,0 +1,62 @@
+package com.easy1staking.plutusscan;
+
+import com.easy1staking.plutusscan.util.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallsShareOneExecution() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    executions.incrementAndGet();
+                    release.await();
+                    return "plutus.json";
+                })));
+            }
+
+            // Let every caller reach the in-flight call before the build completes
+            while (executions.get() == 0) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("plutus.json", result.get(10, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void testFailureIsNotRemembered() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        assertThrows(IOException.class, () -> singleFlight.execute("key", () -> {
+            throw new IOException("build failed");
+        }));
+
+        assertEquals("ok", singleFlight.execute("key", () -> "ok"));
+    }
+}
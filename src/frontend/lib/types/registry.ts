@@ -28,6 +28,7 @@ export interface ScriptListResponseDto {
   compilerVersion: string;
   status: string;
   scripts: ScriptResponseDto[];
+  otherRequests?: ScriptListResponseDto[];
 }
 
 export interface VerificationResponseDto {